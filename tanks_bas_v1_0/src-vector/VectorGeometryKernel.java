@@ -0,0 +1,63 @@
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD implementation of the geometry kernel on top of jdk.incubator.vector.
+ * Tests as many circles or points per instruction as the preferred vector species holds,
+ * 8 with AVX2 and 16 with AVX-512, and finishes the tail of the arrays with the scalar code.
+ * Only loaded through GeometryKernel.create when the vector module is present.
+ * Kept out of src because it needs --add-modules jdk.incubator.vector to compile, build it with:
+ * javac --add-modules jdk.incubator.vector -cp [src classes] src-vector/VectorGeometryKernel.java
+ */
+class VectorGeometryKernel implements GeometryKernel {
+    static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+
+    @Override
+    public boolean segmentClear(float ax, float ay, float bx, float by, float[] cx, float[] cy, float[] radius, int count, float clearance) {
+        float dx = bx - ax;
+        float dy = by - ay;
+        float lengthSquared = dx * dx + dy * dy;
+        float inverse = lengthSquared == 0 ? 0 : 1 / lengthSquared;
+
+        int i = 0;
+        int upper = SPECIES.loopBound(count);
+        for (; i < upper; i += SPECIES.length()) {
+            FloatVector ox = FloatVector.fromArray(SPECIES, cx, i).sub(ax);
+            FloatVector oy = FloatVector.fromArray(SPECIES, cy, i).sub(ay);
+            FloatVector t = ox.mul(dx).add(oy.mul(dy)).mul(inverse).max(0f).min(1f);
+            FloatVector ex = ox.sub(t.mul(dx));
+            FloatVector ey = oy.sub(t.mul(dy));
+            FloatVector reach = FloatVector.fromArray(SPECIES, radius, i).add(clearance);
+
+            if (ex.mul(ex).add(ey.mul(ey)).lt(reach.mul(reach)).anyTrue()) {
+                return false;
+            }
+        }
+        return ScalarGeometryKernel.segmentClear(ax, ay, bx, by, cx, cy, radius, i, count, clearance);
+    }
+
+    @Override
+    public int nearest(float px, float py, float[] x, float[] y, int count) {
+        int best = -1;
+        float bestDistanceSquared = Float.POSITIVE_INFINITY;
+
+        int i = 0;
+        int upper = SPECIES.loopBound(count);
+        for (; i < upper; i += SPECIES.length()) {
+            FloatVector dx = FloatVector.fromArray(SPECIES, x, i).sub(px);
+            FloatVector dy = FloatVector.fromArray(SPECIES, y, i).sub(py);
+            FloatVector distanceSquared = dx.mul(dx).add(dy.mul(dy));
+
+            VectorMask<Float> closer = distanceSquared.lt(bestDistanceSquared);
+            if (closer.anyTrue()) {
+                float chunkBest = distanceSquared.reduceLanes(VectorOperators.MIN);
+                int lane = distanceSquared.eq(chunkBest).firstTrue();
+                best = i + lane;
+                bestDistanceSquared = chunkBest;
+            }
+        }
+        return ScalarGeometryKernel.nearest(px, py, x, y, i, count, best, bestDistanceSquared);
+    }
+}
@@ -0,0 +1,152 @@
+import processing.core.PVector;
+
+import java.util.HashMap;
+
+/**
+ * Spreads the decision making of the tank agents over several ticks.
+ * Every tank gets a decision interval from its navigation state and its distance to the enemy,
+ * and decides only on ticks where the tick count plus its own offset is a multiple of that interval.
+ * Tanks in combat, near an enemy or close to their target decide every tick, tanks following a path
+ * every few ticks and tanks waiting at a base only rarely, so the work per tick stays flat when the team grows.
+ * Between decisions a tank keeps driving in the direction it was given last.
+ */
+class AgentScheduler {
+    ExplorationManager explorationManager;
+
+    long tick;
+    HashMap<Tank, Integer> offsets;
+    HashMap<Tank, Integer> intervals;
+    HashMap<Tank, Float> enemyDistances;
+    HashMap<Tank, Long> enemyDistanceTicks;
+
+    int combatInterval;
+    int exploringInterval;
+    int pathInterval;
+    int idleInterval;
+    float engageRange;
+    float targetRange;
+    float closingSpeed;
+
+    // Number of tanks that decide on the current tick, shown next to the exploration progress
+    int decisionsThisTick;
+
+    /**
+     * Constructor for the agent scheduler.
+     * @param explorationManager Exploration manager holding the navigation state of the tanks
+     */
+    AgentScheduler(ExplorationManager explorationManager) {
+        this.explorationManager = explorationManager;
+
+        this.tick = 0;
+        this.offsets = new HashMap<Tank, Integer>();
+        this.intervals = new HashMap<Tank, Integer>();
+        this.enemyDistances = new HashMap<Tank, Float>();
+        this.enemyDistanceTicks = new HashMap<Tank, Long>();
+
+        this.combatInterval = 1;
+        this.exploringInterval = 2;
+        this.pathInterval = 4;
+        this.idleInterval = 16;
+        this.engageRange = 300;
+        this.targetRange = 60;
+        // Two tanks driving straight at each other at full speed on both axes
+        this.closingSpeed = 6;
+
+        this.decisionsThisTick = 0;
+    }
+
+    /**
+     * Registers a tank and gives it the next free offset, so tanks with the same interval decide on different ticks.
+     * @param tank The tank to schedule
+     */
+    void addTank(Tank tank) {
+        if (offsets.containsKey(tank)) return;
+        offsets.put(tank, offsets.size());
+        intervals.put(tank, combatInterval);
+    }
+
+    /**
+     * Starts a new tick and decides which tanks get to think during it.
+     * Must be called once per frame before the sensors, agents and navigation are updated.
+     * @param allTanks Array of all tanks, used to measure the distance to the enemy
+     */
+    void beginTick(Tank[] allTanks) {
+        tick++;
+        decisionsThisTick = 0;
+        for (Tank tank : offsets.keySet()) {
+            int interval = decisionInterval(tank, allTanks);
+            intervals.put(tank, interval);
+            if (isDue(tank)) {
+                decisionsThisTick++;
+            }
+        }
+    }
+
+    /**
+     * Checks if a tank makes its decisions on the current tick.
+     * Tanks that are not scheduled always decide.
+     * @param tank The tank to check
+     * @return true if the tank should update its sensor, agent and navigation this tick
+     */
+    boolean isDue(Tank tank) {
+        Integer offset = offsets.get(tank);
+        if (offset == null) return true;
+        return (tick + offset) % intervals.get(tank) == 0;
+    }
+
+    /**
+     * Picks how many ticks a tank may wait between two decisions.
+     * @param tank The tank to pick the interval for
+     * @param allTanks Array of all tanks, used to measure the distance to the enemy
+     * @return Number of ticks between decisions, 1 to decide every tick
+     */
+    int decisionInterval(Tank tank, Tank[] allTanks) {
+        if (tank.isDestroyed) return idleInterval;
+        if (!explorationManager.isAutoExploreActive()) return combatInterval;
+        if (tank.losSensor.getIsLockedOn() || tank.losSensor.isCombatMode()) return combatInterval;
+
+        ExplorationManager.NavigationState navState = explorationManager.navStates.get(tank);
+        if (navState == ExplorationManager.NavigationState.ATTACK_MODE) return combatInterval;
+        if (enemyWithinRange(tank, allTanks)) return combatInterval;
+
+        Node targetNode = explorationManager.targetNodes.get(tank);
+        if (targetNode != null && PVector.dist(tank.position, targetNode.position) < targetRange) {
+            return combatInterval;
+        }
+
+        switch (navState) {
+            case WAITING_AT_HOME:
+            case WAITING_OUTSIDE_ENEMY_BASE:
+                return idleInterval;
+            case EXPLORING:
+                return exploringInterval;
+            default:
+                return pathInterval;
+        }
+    }
+
+    /**
+     * Checks if an enemy tank may be within the engage range.
+     * The last measured distance shrinks by the closing speed every tick, and the enemies are
+     * only measured again once that estimate drops inside the range, so far away tanks cost nothing.
+     * @param tank The tank to check
+     * @param allTanks Array of all tanks
+     * @return true if the nearest living enemy is within the engage range
+     */
+    boolean enemyWithinRange(Tank tank, Tank[] allTanks) {
+        Float measured = enemyDistances.get(tank);
+        if (measured != null) {
+            float estimate = measured - (tick - enemyDistanceTicks.get(tank)) * closingSpeed;
+            if (estimate >= engageRange) return false;
+        }
+
+        float nearest = Float.POSITIVE_INFINITY;
+        for (Tank other : allTanks) {
+            if (other == null || other.isDestroyed || other.col == tank.col) continue;
+            nearest = Math.min(nearest, PVector.dist(tank.position, other.position));
+        }
+        enemyDistances.put(tank, nearest);
+        enemyDistanceTicks.put(tank, tick);
+        return nearest < engageRange;
+    }
+}
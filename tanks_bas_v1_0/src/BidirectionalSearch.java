@@ -0,0 +1,127 @@
+import java.util.*;
+
+/**
+ * Bidirectional A* on a GraphSnapshot with landmark (ALT) heuristics.
+ * Both searches use the averaged potential p(v) = (h_goal(v) - h_start(v)) / 2, which keeps the
+ * forward and backward reduced edge costs equal, so the search can stop as soon as the two
+ * smallest open keys together reach the best meeting cost found so far.
+ */
+class BidirectionalSearch {
+    GraphSnapshot snapshot;
+    LandmarkTable landmarks;
+    int start;
+    int goal;
+    int expansions;
+
+    /**
+     * Constructor for one query.
+     * @param snapshot The graph snapshot to search
+     * @param landmarks Landmark table of the same topology version, or null for straight line distances only
+     * @param start The starting node
+     * @param goal The destination node
+     */
+    BidirectionalSearch(GraphSnapshot snapshot, LandmarkTable landmarks, Node start, Node goal) {
+        this.snapshot = snapshot;
+        this.landmarks = landmarks != null && landmarks.version == snapshot.topologyVersion ? landmarks : null;
+        this.start = snapshot.indexOf(start);
+        this.goal = snapshot.indexOf(goal);
+        this.expansions = 0;
+    }
+
+    /**
+     * Runs the search.
+     * @return List of nodes from start to goal, or an empty list if no path exists
+     */
+    ArrayList<Node> run() {
+        if (start < 0 || goal < 0) return new ArrayList<>();
+        if (start == goal) return new ArrayList<>(List.of(snapshot.nodes[start]));
+
+        int count = snapshot.nodes.length;
+        float[] forwardG = new float[count];
+        float[] backwardG = new float[count];
+        int[] forwardFrom = new int[count];
+        int[] backwardFrom = new int[count];
+        boolean[] forwardClosed = new boolean[count];
+        boolean[] backwardClosed = new boolean[count];
+        Arrays.fill(forwardG, Float.MAX_VALUE);
+        Arrays.fill(backwardG, Float.MAX_VALUE);
+        Arrays.fill(forwardFrom, -1);
+        Arrays.fill(backwardFrom, -1);
+
+        // Potentials are computed at most once per node
+        float[] potential = new float[count];
+        boolean[] hasPotential = new boolean[count];
+
+        PriorityQueue<GraphSnapshot.QueueEntry> forwardOpen = new PriorityQueue<>((a, b) -> Float.compare(a.f, b.f));
+        PriorityQueue<GraphSnapshot.QueueEntry> backwardOpen = new PriorityQueue<>((a, b) -> Float.compare(a.f, b.f));
+
+        forwardG[start] = 0;
+        backwardG[goal] = 0;
+        forwardOpen.add(new GraphSnapshot.QueueEntry(start, potential(start, potential, hasPotential)));
+        backwardOpen.add(new GraphSnapshot.QueueEntry(goal, -potential(goal, potential, hasPotential)));
+
+        float best = Float.MAX_VALUE;
+        int meeting = -1;
+
+        while (!forwardOpen.isEmpty() && !backwardOpen.isEmpty()) {
+            if (forwardOpen.peek().f + backwardOpen.peek().f >= best) break;
+
+            boolean forward = forwardOpen.peek().f <= backwardOpen.peek().f;
+            PriorityQueue<GraphSnapshot.QueueEntry> openSet = forward ? forwardOpen : backwardOpen;
+            float[] gScore = forward ? forwardG : backwardG;
+            float[] otherG = forward ? backwardG : forwardG;
+            int[] from = forward ? forwardFrom : backwardFrom;
+            boolean[] closed = forward ? forwardClosed : backwardClosed;
+
+            int current = openSet.poll().node;
+            if (closed[current]) continue;
+            closed[current] = true;
+            expansions++;
+
+            int[] neighbors = snapshot.neighbors[current];
+            float[] weights = snapshot.weights[current];
+            for (int k = 0; k < neighbors.length; k++) {
+                int neighbor = neighbors[k];
+                float tentative = gScore[current] + weights[k];
+                if (tentative < gScore[neighbor]) {
+                    gScore[neighbor] = tentative;
+                    from[neighbor] = current;
+                    float p = potential(neighbor, potential, hasPotential);
+                    openSet.add(new GraphSnapshot.QueueEntry(neighbor, tentative + (forward ? p : -p)));
+                }
+                if (otherG[neighbor] != Float.MAX_VALUE && gScore[neighbor] + otherG[neighbor] < best) {
+                    best = gScore[neighbor] + otherG[neighbor];
+                    meeting = neighbor;
+                }
+            }
+        }
+
+        if (meeting < 0) return new ArrayList<>();
+
+        ArrayList<Node> path = snapshot.reconstructPath(forwardFrom, meeting);
+        for (int current = backwardFrom[meeting]; current != -1; current = backwardFrom[current]) {
+            path.add(snapshot.nodes[current]);
+        }
+        return path;
+    }
+
+    /**
+     * Gets the averaged potential of a node.
+     */
+    private float potential(int node, float[] potential, boolean[] hasPotential) {
+        if (!hasPotential[node]) {
+            potential[node] = (estimate(node, goal) - estimate(node, start)) / 2;
+            hasPotential[node] = true;
+        }
+        return potential[node];
+    }
+
+    /**
+     * Lower bound of the distance between two nodes: the larger of the landmark bound and the straight line.
+     */
+    private float estimate(int a, int b) {
+        float straight = snapshot.heuristic(a, b);
+        if (landmarks == null) return straight;
+        return Math.max(straight, landmarks.lowerBound(a, b));
+    }
+}
@@ -0,0 +1,121 @@
+import java.util.*;
+
+/**
+ * Routes collision events to the handler registered for the tank involved.
+ * Events found during a tick are collected in a reusable buffer and delivered in one pass
+ * once all collision checks are done, so handlers never run while positions are still being resolved.
+ * Tank against tank events are delivered to both tanks, each seeing itself as the first tank.
+ */
+class CollisionDispatcher {
+    static final int BORDER = 0;
+    static final int TREE = 1;
+    static final int ENEMY_BASE = 2;
+    static final int TANK = 3;
+
+    HashMap<Tank, CollisionHandler> handlers;
+
+    int[] types;
+    Tank[] tanks;
+    Object[] others;
+    int size;
+
+    /**
+     * Constructor for an empty dispatcher.
+     * @param capacity Initial number of events the buffer holds, it grows when needed
+     */
+    CollisionDispatcher(int capacity) {
+        this.handlers = new HashMap<>();
+        this.types = new int[capacity];
+        this.tanks = new Tank[capacity];
+        this.others = new Object[capacity];
+        this.size = 0;
+    }
+
+    /**
+     * Registers the handler that receives the events of one tank, replacing any earlier one.
+     * @param tank The tank the handler is responsible for
+     * @param handler The handler to call for the tank's events
+     */
+    void register(Tank tank, CollisionHandler handler) {
+        handlers.put(tank, handler);
+    }
+
+    /**
+     * Removes the handler of a tank, its events are dropped from then on.
+     * @param tank The tank to unregister
+     */
+    void unregister(Tank tank) {
+        handlers.remove(tank);
+    }
+
+    /**
+     * Checks if a tank is returning home according to its own handler.
+     * @param tank The tank to check
+     * @return true if the tank's handler reports it is returning home, false if not or if it has no handler
+     */
+    boolean isReturningHome(Tank tank) {
+        CollisionHandler handler = handlers.get(tank);
+        return handler != null && handler.isReturningHome(tank);
+    }
+
+    /**
+     * Queues an event for the next dispatch. Events for tanks without a handler are not stored.
+     * @param type Event type, one of BORDER, TREE, ENEMY_BASE or TANK
+     * @param tank The tank the event is delivered to
+     * @param other The tree or tank it collided with, may be null
+     */
+    void post(int type, Tank tank, Object other) {
+        if (!handlers.containsKey(tank)) return;
+
+        if (size == types.length) {
+            int capacity = types.length * 2;
+            types = Arrays.copyOf(types, capacity);
+            tanks = Arrays.copyOf(tanks, capacity);
+            others = Arrays.copyOf(others, capacity);
+        }
+        types[size] = type;
+        tanks[size] = tank;
+        others[size] = other;
+        size++;
+    }
+
+    /**
+     * Queues a collision between two tanks for both of them.
+     * @param tank The first tank
+     * @param otherTank The second tank
+     */
+    void postTankCollision(Tank tank, Tank otherTank) {
+        post(TANK, tank, otherTank);
+        post(TANK, otherTank, tank);
+    }
+
+    /**
+     * Delivers all queued events in the order they were posted and empties the buffer.
+     * Handlers may post new events, those are delivered in the same pass.
+     */
+    void dispatch() {
+        for (int i = 0; i < size; i++) {
+            CollisionHandler handler = handlers.get(tanks[i]);
+            if (handler == null) continue;
+
+            switch (types[i]) {
+                case BORDER:
+                    handler.handleBorderCollision(tanks[i]);
+                    break;
+                case TREE:
+                    handler.handleTreeCollision(tanks[i], (Tree) others[i]);
+                    break;
+                case ENEMY_BASE:
+                    handler.handleEnemyBaseCollision(tanks[i]);
+                    break;
+                case TANK:
+                    handler.handleTankCollision(tanks[i], (Tank) others[i]);
+                    break;
+            }
+        }
+
+        Arrays.fill(tanks, 0, size, null);
+        Arrays.fill(others, 0, size, null);
+        size = 0;
+    }
+}
@@ -9,11 +9,13 @@ import java.util.*;
 
 public class Collisions {
     PApplet parent;
-    CollisionHandler collisionHandler;
+    CollisionDispatcher dispatcher;
     Tree[] trees;
+    ObstacleIndex obstacles;
 
     public Collisions(PApplet parent) {
         this.parent = parent;
+        this.dispatcher = new CollisionDispatcher(32);
         this.trees = null;
     }
 
@@ -86,12 +88,14 @@ public class Collisions {
     }
 
     /**
-     * Sets the collision handler for processing collision events.
+     * Registers the collision handler of one tank.
+     * Every tank has its own handler, so registering a tank does not replace the handlers of other tanks.
      *
+     * @param tank    The tank whose collision events the handler receives
      * @param handler The CollisionHandler implementation to use
      */
-    public void setCollisionHandler(CollisionHandler handler) {
-        this.collisionHandler = handler;
+    public void setCollisionHandler(Tank tank, CollisionHandler handler) {
+        dispatcher.register(tank, handler);
     }
 
     /**
@@ -101,6 +105,7 @@ public class Collisions {
      */
     public void setTrees(Tree[] trees) {
         this.trees = trees;
+        this.obstacles = new ObstacleIndex(trees);
     }
 
     /**
@@ -115,13 +120,14 @@ public class Collisions {
     /**
      * Main collision detection method that checks all types of collisions.
      * Processes base collisions, tank-to-tank collisions, tree collisions, and border collisions.
+     * The collision events found are delivered to the tank handlers in one pass at the end.
      *
      * @param allTanks Array of all tanks to check for collisions
      * @param allTrees Array of all trees to check for collisions
      */
     public void checkAllCollisions(Tank[] allTanks, Tree[] allTrees) {
         for (Tank tank : allTanks) {
-            if (tank != null && !collisionHandler.isReturningHome(tank)) {
+            if (tank != null && !dispatcher.isReturningHome(tank)) {
                 checkBaseCollisions(tank);
             }
         }
@@ -137,12 +143,14 @@ public class Collisions {
 
             boolean treeCollision = checkTreeCollisions(allTanks[i], allTrees);
 
-            if (treeCollision && collisionHandler != null && !collisionHandler.isReturningHome(allTanks[i])) {
-                collisionHandler.handleTreeCollision(allTanks[i], null);  // Pass null to indicate a persistent collision
+            if (treeCollision && !dispatcher.isReturningHome(allTanks[i])) {
+                dispatcher.post(CollisionDispatcher.TREE, allTanks[i], null);  // Pass null to indicate a persistent collision
             }
 
             checkBorderCollisions(allTanks[i]);
         }
+
+        dispatcher.dispatch();
     }
 
     /**
@@ -193,9 +201,7 @@ public class Collisions {
         }
 
         if (collided) {
-            if (collisionHandler != null) {
-                collisionHandler.handleEnemyBaseCollision(tank);
-            }
+            dispatcher.post(CollisionDispatcher.ENEMY_BASE, tank, null);
             parent.println(tank.name + " detected enemy base - returning home");
         }
     }
@@ -217,7 +223,7 @@ public class Collisions {
         float minDistance = tank.diameter / 2 + otherTank.diameter / 2;
 
         if (distanceVecMag < minDistance) {
-            collisionHandler.handleTankCollision(tank, otherTank);
+            dispatcher.postTankCollision(tank, otherTank);
         }
         //parent.println("Tank collision detected between " + tank.name + " and " + otherTank.name);
     }
@@ -237,12 +243,10 @@ public class Collisions {
             if (tree != null && checkTreeCollision(tank, tree)) {
                 collisionDetected = true;
 
-                if (collisionHandler != null) {
-                    if (!collisionHandler.isReturningHome(tank)) {
-                        collisionHandler.handleTreeCollision(tank, tree);
-                    } else {
-                        tank.velocity.mult(0.5f);
-                    }
+                if (!dispatcher.isReturningHome(tank)) {
+                    dispatcher.post(CollisionDispatcher.TREE, tank, tree);
+                } else {
+                    tank.velocity.mult(0.5f);
                 }
             }
         }
@@ -256,17 +260,37 @@ public class Collisions {
     /**
      * Checks collision between a tank and a single tree.
      * Handles collision response by pushing the tank away from the tree.
+     * The tank's step is swept from where it started this frame. A step that ends inside the tree,
+     * or whose path crosses the tree itself, is moved back to where it first touched the tree.
+     * A step that only clips the edge of the tree and ends clear of it is left alone, so the tank slides past.
      *
      * @param tank The tank to check for collision
      * @param tree The tree to check against
      * @return true if collision occurred, false otherwise
      */
     public boolean checkTreeCollision(Tank tank, Tree tree) {
+        float minDistance = tree.radius + tank.diameter / 2;
+
+        // Sweep the whole step from where the tank started it, earlier push-outs may have moved it since
+        float startX = tank.previousPosition.x - tree.position.x;
+        float startY = tank.previousPosition.y - tree.position.y;
+        float moveX = tank.position.x - tank.previousPosition.x;
+        float moveY = tank.position.y - tank.previousPosition.y;
+        float t = timeOfImpact(startX, startY, moveX, moveY, minDistance);
+
         PVector distanceVect = PVector.sub(tank.position, tree.position);
         float distanceVecMag = distanceVect.mag();
-        float minDistance = tree.radius + tank.diameter / 2;
 
-        if (distanceVecMag < minDistance) {
+        boolean swept = false;
+        if (t > 0 && t < 1 && (distanceVecMag < minDistance || crossesTree(startX, startY, moveX, moveY, tree.radius))) {
+            tank.position.x -= moveX * (1 - t);
+            tank.position.y -= moveY * (1 - t);
+            distanceVect = PVector.sub(tank.position, tree.position);
+            distanceVecMag = distanceVect.mag();
+            swept = true;
+        }
+
+        if (swept || distanceVecMag < minDistance) {
             float overlap = minDistance - distanceVecMag;
 
             if (distanceVecMag < 1f) {
@@ -331,35 +355,53 @@ public class Collisions {
     }
 
     /**
-     * Determines if a line segment intersects with a circular tree.
-     * Used for line-of-sight calculations and pathfinding.
+     * Checks if the center of a moving circle passes through a circle at rest during a step,
+     * that is if the closest point of its path lies inside the step and within the given radius.
      *
-     * @param start      Starting point of the line
-     * @param end        Ending point of the line
-     * @param treeCenter Center position of the tree
-     * @param treeRadius Radius of the tree
-     * @return true if the line intersects the tree, false otherwise
+     * @param offsetX X offset of the moving center from the resting one at the start of the step
+     * @param offsetY Y offset of the moving center from the resting one at the start of the step
+     * @param moveX   Movement along x during the step
+     * @param moveY   Movement along y during the step
+     * @param radius  Radius of the resting circle
+     * @return true if the path of the center crosses the resting circle
      */
-    public boolean lineIntersectsTree(PVector start, PVector end, PVector treeCenter, float treeRadius) {
-        PVector d = PVector.sub(end, start);
-        PVector f = PVector.sub(start, treeCenter);
+    static boolean crossesTree(float offsetX, float offsetY, float moveX, float moveY, float radius) {
+        float a = moveX * moveX + moveY * moveY;
+        if (a == 0) return false;
+
+        float closest = -(offsetX * moveX + offsetY * moveY) / a;
+        if (closest <= 0 || closest >= 1) return false;
 
-        float a = d.dot(d);
-        float b = 2 * f.dot(d);
-        float c = f.dot(f) - treeRadius * treeRadius;
+        float missX = offsetX + moveX * closest;
+        float missY = offsetY + moveY * closest;
+        return missX * missX + missY * missY < radius * radius;
+    }
 
-        float discriminant = b * b - 4 * a * c;
+    /**
+     * Computes when a moving circle first touches a circle at rest, for swept collision tests.
+     * Both circles are given relative to the resting one, so two moving circles are tested by
+     * passing the difference of their movements.
+     *
+     * @param offsetX X offset of the moving circle from the resting one at the start of the step
+     * @param offsetY Y offset of the moving circle from the resting one at the start of the step
+     * @param moveX   Movement of the moving circle along x during the step
+     * @param moveY   Movement of the moving circle along y during the step
+     * @param reach   Sum of the two radii
+     * @return Fraction of the step in [0, 1] at which the circles touch, 0 if they already overlap, or -1 if they do not meet
+     */
+    public static float timeOfImpact(float offsetX, float offsetY, float moveX, float moveY, float reach) {
+        float c = offsetX * offsetX + offsetY * offsetY - reach * reach;
+        if (c < 0) return 0;
 
-        if (discriminant < 0) {
-            return false;
-        } else {
-            discriminant = (float) Math.sqrt(discriminant);
+        float a = moveX * moveX + moveY * moveY;
+        float b = offsetX * moveX + offsetY * moveY;
+        if (a == 0 || b >= 0) return -1;
 
-            float t1 = (-b - discriminant) / (2 * a);
-            float t2 = (-b + discriminant) / (2 * a);
+        float discriminant = b * b - a * c;
+        if (discriminant < 0) return -1;
 
-            return (t1 >= 0 && t1 <= 1) || (t2 >= 0 && t2 <= 1);
-        }
+        float t = (-b - (float) Math.sqrt(discriminant)) / a;
+        return t <= 1 ? t : -1;
     }
 
     /**
@@ -371,19 +413,10 @@ public class Collisions {
      * @return true if there is clear visibility, false if obstructed
      */
     public boolean canSee(PVector from, PVector to) {
-        if (parent instanceof tanks_bas_v1_0) {
-            tanks_bas_v1_0 game = (tanks_bas_v1_0) parent;
-            if (game.allTrees != null) {
-                for (Tree tree : game.allTrees) {
-                    if (tree != null) {
-                        if (lineIntersectsTree(from, to, tree.position, tree.radius + 10)) {
-                            return false;
-                        }
-                    }
-                }
-            }
+        if (obstacles == null) {
+            obstacles = new ObstacleIndex(parent instanceof tanks_bas_v1_0 ? ((tanks_bas_v1_0) parent).allTrees : null);
         }
-        return true;
+        return obstacles.segmentClear(from.x, from.y, to.x, to.y, 10);
     }
 
     /**
@@ -407,13 +440,11 @@ public class Collisions {
     }
 
     /**
-     * Handles border collision events by delegating to the collision handler.
+     * Queues a border collision event for the tank's handler.
      *
      * @param tank The tank that collided with the border
      */
     void handleBorderCollision(Tank tank) {
-        if (collisionHandler != null) {
-            collisionHandler.handleBorderCollision(tank);
-        }
+        dispatcher.post(CollisionDispatcher.BORDER, tank, null);
     }
 }
\ No newline at end of file
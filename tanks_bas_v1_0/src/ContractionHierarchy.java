@@ -0,0 +1,467 @@
+import java.util.*;
+
+/**
+ * Contraction hierarchy over one graph snapshot.
+ * Nodes are contracted one at a time from least to most important, and shortcut edges keep the
+ * shortest distances between the remaining nodes. A query then only searches upward in the hierarchy
+ * from both ends, which touches a few hundred nodes even on very large graphs.
+ * Finding the node order is the expensive part of a build and only depends on the topology, so when
+ * only edge costs changed a hierarchy is customized: contracted again in the order of the previous one.
+ */
+class ContractionHierarchy {
+    final int version;
+    final int topologyVersion;
+    final boolean customized;
+    final GraphSnapshot snapshot;
+    final int[] rank;
+    final int[] order;
+    final int[][] up;
+    final float[][] upWeights;
+    final HashMap<Long, Integer> middle;
+
+    int witnessSettleLimit = 60;
+    int estimateSettleLimit = 10;
+
+    /**
+     * Entry in the contraction order and query open sets.
+     */
+    static class QueueEntry {
+        int node;
+        float key;
+
+        QueueEntry(int node, float key) {
+            this.node = node;
+            this.key = key;
+        }
+    }
+
+    /**
+     * Constructor that contracts the whole snapshot.
+     * @param snapshot The graph snapshot to preprocess
+     */
+    ContractionHierarchy(GraphSnapshot snapshot) {
+        this(snapshot, null);
+    }
+
+    /**
+     * Constructor that contracts the snapshot, reusing the node order of a previous hierarchy
+     * if it was built for the same topology.
+     * @param snapshot The graph snapshot to preprocess
+     * @param previous Hierarchy of an earlier version of the graph, or null to compute a new order
+     */
+    ContractionHierarchy(GraphSnapshot snapshot, ContractionHierarchy previous) {
+        this.version = snapshot.version;
+        this.topologyVersion = snapshot.topologyVersion;
+        this.snapshot = snapshot;
+        int count = snapshot.nodes.length;
+        this.rank = new int[count];
+        this.order = new int[count];
+        this.up = new int[count][];
+        this.upWeights = new float[count][];
+        this.middle = new HashMap<>();
+        this.customized = previous != null && previous.topologyVersion == topologyVersion && previous.order.length == count;
+        if (customized) {
+            customize(previous.order);
+        } else {
+            contract();
+        }
+    }
+
+    /**
+     * Copies the snapshot into adjacency maps that contraction can add shortcuts to and remove nodes from.
+     */
+    private ArrayList<HashMap<Integer, Float>> adjacency() {
+        int count = snapshot.nodes.length;
+        ArrayList<HashMap<Integer, Float>> adjacency = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            HashMap<Integer, Float> row = new HashMap<>();
+            for (int k = 0; k < snapshot.neighbors[i].length; k++) {
+                row.merge(snapshot.neighbors[i][k], snapshot.weights[i][k], Math::min);
+            }
+            row.remove(i);
+            adjacency.add(row);
+        }
+        return adjacency;
+    }
+
+    /**
+     * Contracts the nodes in a given order with the current edge costs.
+     * Witness searches still decide which shortcuts are needed, so the hierarchy is exact for the new costs.
+     * @param previousOrder Nodes in the order they were contracted before
+     */
+    private void customize(int[] previousOrder) {
+        ArrayList<HashMap<Integer, Float>> adjacency = adjacency();
+        boolean[] contracted = new boolean[previousOrder.length];
+        Witness witness = new Witness(previousOrder.length);
+        for (int i = 0; i < previousOrder.length; i++) {
+            contractNode(previousOrder[i], i, adjacency, contracted, witness);
+        }
+    }
+
+    /**
+     * Contracts all nodes in order of importance and records the upward edges of every node.
+     */
+    private void contract() {
+        int count = snapshot.nodes.length;
+        ArrayList<HashMap<Integer, Float>> adjacency = adjacency();
+
+        boolean[] contracted = new boolean[count];
+        int[] contractedNeighbors = new int[count];
+        int[] level = new int[count];
+        float[] priority = new float[count];
+        Witness witness = new Witness(count);
+
+        PriorityQueue<QueueEntry> queue = new PriorityQueue<>((a, b) -> Float.compare(a.key, b.key));
+        for (int i = 0; i < count; i++) {
+            priority[i] = importance(i, adjacency, contracted, contractedNeighbors, level, witness);
+            queue.add(new QueueEntry(i, priority[i]));
+        }
+
+        int nextRank = 0;
+        while (!queue.isEmpty()) {
+            QueueEntry entry = queue.poll();
+            int v = entry.node;
+            if (contracted[v] || entry.key != priority[v]) continue;
+
+            // Lazy update: the importance may have grown since the entry was queued
+            float current = importance(v, adjacency, contracted, contractedNeighbors, level, witness);
+            if (!queue.isEmpty() && current > queue.peek().key) {
+                priority[v] = current;
+                queue.add(new QueueEntry(v, current));
+                continue;
+            }
+
+            contractNode(v, nextRank++, adjacency, contracted, witness);
+
+            // The neighbors lost an edge and may have gained shortcuts, so their importance changed
+            for (int neighbor : up[v]) {
+                contractedNeighbors[neighbor]++;
+                level[neighbor] = Math.max(level[neighbor], level[v] + 1);
+                priority[neighbor] = importance(neighbor, adjacency, contracted, contractedNeighbors, level, witness);
+                queue.add(new QueueEntry(neighbor, priority[neighbor]));
+            }
+        }
+    }
+
+    /**
+     * Contracts one node: adds the shortcuts its removal needs, records its remaining edges as
+     * upward edges and removes it from the graph that is left.
+     */
+    private void contractNode(int v, int nodeRank, ArrayList<HashMap<Integer, Float>> adjacency, boolean[] contracted, Witness witness) {
+        HashMap<Integer, Float> row = adjacency.get(v);
+        addShortcuts(v, adjacency, contracted, witness, true);
+
+        up[v] = new int[row.size()];
+        upWeights[v] = new float[row.size()];
+        int k = 0;
+        for (Map.Entry<Integer, Float> edge : row.entrySet()) {
+            int neighbor = edge.getKey();
+            up[v][k] = neighbor;
+            upWeights[v][k] = edge.getValue();
+            k++;
+            adjacency.get(neighbor).remove(v);
+        }
+        contracted[v] = true;
+        rank[v] = nodeRank;
+        order[nodeRank] = v;
+    }
+
+    /**
+     * Importance of a node: how many edges its contraction would add minus how many it removes,
+     * plus how many of its neighbors are already contracted and its depth in the hierarchy,
+     * both of which spread contraction evenly over the map.
+     */
+    private float importance(int v, ArrayList<HashMap<Integer, Float>> adjacency, boolean[] contracted, int[] contractedNeighbors, int[] level, Witness witness) {
+        int shortcuts = addShortcuts(v, adjacency, contracted, witness, false);
+        return 2 * (shortcuts - adjacency.get(v).size()) + contractedNeighbors[v] + level[v];
+    }
+
+    /**
+     * Finds the shortcuts needed to contract a node, and adds them if requested.
+     * A shortcut u-w is needed when no path avoiding v is as short as u-v-w.
+     * @return Number of shortcuts needed
+     */
+    private int addShortcuts(int v, ArrayList<HashMap<Integer, Float>> adjacency, boolean[] contracted, Witness witness, boolean apply) {
+        HashMap<Integer, Float> row = adjacency.get(v);
+        Integer[] neighbors = row.keySet().toArray(new Integer[0]);
+        int shortcuts = 0;
+
+        for (int a = 0; a < neighbors.length; a++) {
+            int u = neighbors[a];
+            float toU = row.get(u);
+
+            float maxVia = 0;
+            for (int b = a + 1; b < neighbors.length; b++) {
+                maxVia = Math.max(maxVia, toU + row.get(neighbors[b]));
+            }
+            if (maxVia == 0) continue;
+
+            witness.search(u, v, maxVia, adjacency, contracted, apply ? witnessSettleLimit : estimateSettleLimit);
+
+            for (int b = a + 1; b < neighbors.length; b++) {
+                int w = neighbors[b];
+                float via = toU + row.get(w);
+                if (witness.distance(w) <= via) continue;
+
+                shortcuts++;
+                if (apply) {
+                    Float existing = adjacency.get(u).get(w);
+                    if (existing == null || via < existing) {
+                        adjacency.get(u).put(w, via);
+                        adjacency.get(w).put(u, via);
+                        middle.put(key(u, w), v);
+                    }
+                }
+            }
+        }
+        return shortcuts;
+    }
+
+    /**
+     * Bounded Dijkstra used to look for paths that make a shortcut unnecessary.
+     * Distance arrays are reused between searches and only the touched entries are reset.
+     */
+    private static class Witness {
+        float[] distance;
+        ArrayList<Integer> touched;
+
+        Witness(int count) {
+            distance = new float[count];
+            Arrays.fill(distance, Float.MAX_VALUE);
+            touched = new ArrayList<>();
+        }
+
+        void search(int source, int excluded, float maxDistance, ArrayList<HashMap<Integer, Float>> adjacency, boolean[] contracted, int settleLimit) {
+            for (int node : touched) {
+                distance[node] = Float.MAX_VALUE;
+            }
+            touched.clear();
+
+            PriorityQueue<QueueEntry> openSet = new PriorityQueue<>((a, b) -> Float.compare(a.key, b.key));
+            distance[source] = 0;
+            touched.add(source);
+            openSet.add(new QueueEntry(source, 0));
+            int settled = 0;
+
+            while (!openSet.isEmpty() && settled < settleLimit) {
+                QueueEntry entry = openSet.poll();
+                if (entry.key > distance[entry.node]) continue;
+                if (entry.key > maxDistance) break;
+                settled++;
+
+                for (Map.Entry<Integer, Float> edge : adjacency.get(entry.node).entrySet()) {
+                    int neighbor = edge.getKey();
+                    if (neighbor == excluded || contracted[neighbor]) continue;
+
+                    float newDistance = entry.key + edge.getValue();
+                    if (newDistance < distance[neighbor]) {
+                        if (distance[neighbor] == Float.MAX_VALUE) touched.add(neighbor);
+                        distance[neighbor] = newDistance;
+                        openSet.add(new QueueEntry(neighbor, newDistance));
+                    }
+                }
+            }
+        }
+
+        float distance(int node) {
+            return distance[node];
+        }
+    }
+
+    /**
+     * Finds the shortest path between two nodes with an upward search from both ends.
+     * Allocates its own searches, callers that query often should keep a pair and pass it in.
+     * @param start The starting node
+     * @param goal The destination node
+     * @return List of nodes from start to goal, or an empty list if no path exists
+     */
+    ArrayList<Node> findPath(Node start, Node goal) {
+        return findPath(start, goal, new UpwardSearch(), new UpwardSearch());
+    }
+
+    /**
+     * Finds the shortest path between two nodes with an upward search from both ends.
+     * @param start The starting node
+     * @param goal The destination node
+     * @param forward Search reused for the start side, owned by the calling thread
+     * @param backward Search reused for the goal side, owned by the calling thread
+     * @return List of nodes from start to goal, or an empty list if no path exists
+     */
+    ArrayList<Node> findPath(Node start, Node goal, UpwardSearch forward, UpwardSearch backward) {
+        int s = snapshot.indexOf(start);
+        int t = snapshot.indexOf(goal);
+        if (s < 0 || t < 0) return new ArrayList<>();
+        if (s == t) return new ArrayList<>(List.of(snapshot.nodes[s]));
+
+        forward.run(up, upWeights, s, true);
+        backward.run(up, upWeights, t, true);
+
+        float best = Float.MAX_VALUE;
+        int meeting = -1;
+        for (int i = 0; i < forward.touchedCount; i++) {
+            int node = forward.touched[i];
+            float total = forward.distance[node] + backward.distance[node];
+            if (backward.distance[node] != Float.MAX_VALUE && total < best) {
+                best = total;
+                meeting = node;
+            }
+        }
+        if (meeting < 0) return new ArrayList<>();
+
+        ArrayList<Integer> hierarchyPath = new ArrayList<>();
+        for (int node = meeting; node != -1; node = forward.from[node]) {
+            hierarchyPath.add(node);
+        }
+        Collections.reverse(hierarchyPath);
+        for (int node = backward.from[meeting]; node != -1; node = backward.from[node]) {
+            hierarchyPath.add(node);
+        }
+
+        ArrayList<Node> path = new ArrayList<>();
+        path.add(snapshot.nodes[hierarchyPath.get(0)]);
+        for (int i = 1; i < hierarchyPath.size(); i++) {
+            unpack(hierarchyPath.get(i - 1), hierarchyPath.get(i), path);
+        }
+        return path;
+    }
+
+    /**
+     * Dijkstra over the upward edges only, with reusable arrays so a query costs
+     * time in the size of its search space instead of the size of the graph.
+     * A search holds no reference to a hierarchy, so one thread can keep a pair and use it
+     * on every hierarchy that replaces the last one.
+     */
+    static class UpwardSearch {
+        float[] distance = new float[0];
+        int[] from = new int[0];
+        int[] touched = new int[0];
+        int touchedCount;
+
+        /**
+         * Settles the upward search space of a node. With stalling, nodes that can be reached more cheaply
+         * from a more important node are not expanded, since no shortest path goes up through them.
+         * @param up Upward neighbors of every node
+         * @param upWeights Costs of the upward edges
+         * @param source Index of the node to search from
+         * @param stall true to skip nodes that are reached more cheaply from above
+         */
+        void run(int[][] up, float[][] upWeights, int source, boolean stall) {
+            if (distance.length < up.length) {
+                distance = new float[up.length];
+                from = new int[up.length];
+                touched = new int[up.length];
+                Arrays.fill(distance, Float.MAX_VALUE);
+                Arrays.fill(from, -1);
+            } else {
+                for (int i = 0; i < touchedCount; i++) {
+                    distance[touched[i]] = Float.MAX_VALUE;
+                    from[touched[i]] = -1;
+                }
+            }
+            touchedCount = 0;
+
+            PriorityQueue<QueueEntry> openSet = new PriorityQueue<>((a, b) -> Float.compare(a.key, b.key));
+            distance[source] = 0;
+            touched[touchedCount++] = source;
+            openSet.add(new QueueEntry(source, 0));
+
+            while (!openSet.isEmpty()) {
+                QueueEntry entry = openSet.poll();
+                int node = entry.node;
+                if (entry.key > distance[node]) continue;
+                if (stall && isStalled(up, upWeights, node)) continue;
+
+                for (int k = 0; k < up[node].length; k++) {
+                    int neighbor = up[node][k];
+                    float newDistance = entry.key + upWeights[node][k];
+                    if (newDistance < distance[neighbor]) {
+                        if (distance[neighbor] == Float.MAX_VALUE) touched[touchedCount++] = neighbor;
+                        distance[neighbor] = newDistance;
+                        from[neighbor] = node;
+                        openSet.add(new QueueEntry(neighbor, newDistance));
+                    }
+                }
+            }
+        }
+
+        private boolean isStalled(int[][] up, float[][] upWeights, int node) {
+            for (int k = 0; k < up[node].length; k++) {
+                int neighbor = up[node][k];
+                if (distance[neighbor] != Float.MAX_VALUE && distance[neighbor] + upWeights[node][k] < distance[node]) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Builds the shortest path tree of all nodes toward one root in time linear in the hierarchy size.
+     * An upward search from the root gives the distances of the nodes above it, and one sweep over
+     * all nodes from the most to the least important then passes every distance down the upward edges
+     * (PHAST). The next pointers follow the original edges, so paths read from the tree need no unpacking.
+     * @param root The node every path leads to
+     * @return Shortest path tree for the edge costs of this hierarchy
+     */
+    ShortestPathTree pathTree(Node root) {
+        HashMap<Node, Node> next = new HashMap<>();
+        HashMap<Node, Float> distances = new HashMap<>();
+        int r = snapshot.indexOf(root);
+        if (r < 0) return new ShortestPathTree(root, next, distances);
+
+        UpwardSearch search = new UpwardSearch();
+        search.run(up, upWeights, r, false);
+        float[] distance = new float[up.length];
+        Arrays.fill(distance, Float.MAX_VALUE);
+        for (int i = 0; i < search.touchedCount; i++) {
+            distance[search.touched[i]] = search.distance[search.touched[i]];
+        }
+        for (int i = order.length - 1; i >= 0; i--) {
+            int v = order[i];
+            for (int k = 0; k < up[v].length; k++) {
+                float viaUp = distance[up[v][k]] + upWeights[v][k];
+                if (viaUp < distance[v]) {
+                    distance[v] = viaUp;
+                }
+            }
+        }
+
+        distances.put(root, 0f);
+        for (int v = 0; v < distance.length; v++) {
+            if (distance[v] == Float.MAX_VALUE || v == r) continue;
+
+            int best = -1;
+            float bestDistance = Float.MAX_VALUE;
+            for (int k = 0; k < snapshot.neighbors[v].length; k++) {
+                int neighbor = snapshot.neighbors[v][k];
+                float viaNeighbor = distance[neighbor] + snapshot.weights[v][k];
+                if (distance[neighbor] < distance[v] && viaNeighbor < bestDistance) {
+                    bestDistance = viaNeighbor;
+                    best = neighbor;
+                }
+            }
+            if (best >= 0) {
+                distances.put(snapshot.nodes[v], distance[v]);
+                next.put(snapshot.nodes[v], snapshot.nodes[best]);
+            }
+        }
+        return new ShortestPathTree(root, next, distances);
+    }
+
+    /**
+     * Replaces a hierarchy edge by the original edges it stands for and appends them to the path.
+     */
+    private void unpack(int from, int to, ArrayList<Node> path) {
+        Integer via = middle.get(key(from, to));
+        if (via == null) {
+            path.add(snapshot.nodes[to]);
+            return;
+        }
+        unpack(from, via, path);
+        unpack(via, to, path);
+    }
+
+    private static long key(int a, int b) {
+        return a < b ? ((long) a << 32) | b : ((long) b << 32) | a;
+    }
+}
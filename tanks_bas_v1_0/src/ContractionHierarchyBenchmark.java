@@ -0,0 +1,167 @@
+import processing.core.*;
+
+import java.util.*;
+
+/**
+ * Standalone benchmark and correctness check for the contraction hierarchy.
+ * Builds a random geometric graph and compares hierarchy queries with plain A* on the same snapshot,
+ * then changes the cost of some edges, customizes the hierarchy and compares again.
+ * Also compares the shortest path tree swept out of the hierarchy with one built by Dijkstra.
+ * Every path cost has to match.
+ * Run with: java ContractionHierarchyBenchmark [nodes] [queries]
+ */
+class ContractionHierarchyBenchmark {
+    public static void main(String[] args) {
+        int nodeCount = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        int queries = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+
+        PApplet parent = new PApplet();
+        Random random = new Random(3);
+        ArrayList<Node> nodes = buildGraph(parent, nodeCount, random);
+        GraphSnapshot snapshot = new GraphSnapshot(null, nodes, null, 1, 1);
+        System.out.println(nodeCount + " nodes, " + queries + " queries");
+
+        long start = System.nanoTime();
+        ContractionHierarchy hierarchy = new ContractionHierarchy(snapshot);
+        System.out.printf("build:     %8.1f ms%n", (System.nanoTime() - start) / 1e6);
+        compareQueries(snapshot, hierarchy, nodes, queries, new Random(5));
+
+        // Make some edges more expensive, as congestion does. Costs never drop below the length, which A* relies on
+        HashSet<Node> changed = new HashSet<>();
+        for (int i = 0; i < nodeCount / 20; i++) {
+            Node node = nodes.get(random.nextInt(nodeCount));
+            if (node.edges.isEmpty()) continue;
+            Edge edge = node.edges.get(random.nextInt(node.edges.size()));
+            float weight = edge.length * (1 + 2 * random.nextFloat());
+            setWeight(node, edge.destination, weight);
+            setWeight(edge.destination, node, weight);
+            changed.add(node);
+            changed.add(edge.destination);
+        }
+        GraphSnapshot changedSnapshot = new GraphSnapshot(snapshot, nodes, changed, 2, 1);
+
+        start = System.nanoTime();
+        ContractionHierarchy customized = new ContractionHierarchy(changedSnapshot, hierarchy);
+        System.out.printf("customize: %8.1f ms%n", (System.nanoTime() - start) / 1e6);
+        compareQueries(changedSnapshot, customized, nodes, queries, new Random(7));
+
+        Node root = nodes.get(0);
+        start = System.nanoTime();
+        ShortestPathTree dijkstra = new ShortestPathTree(root);
+        long dijkstraTime = System.nanoTime() - start;
+        start = System.nanoTime();
+        ShortestPathTree swept = customized.pathTree(root);
+        long sweptTime = System.nanoTime() - start;
+
+        int mismatches = 0;
+        for (Node node : nodes) {
+            Float expected = dijkstra.distance.get(node);
+            Float actual = swept.distance.get(node);
+            if (expected == null ? actual != null : actual == null || !close(expected, actual)
+                    || !close(pathCost(swept.pathToRoot(node)), expected)) {
+                mismatches++;
+            }
+        }
+        System.out.printf("tree:      dijkstra %.1f ms, hierarchy sweep %.1f ms, %d mismatches%n",
+                dijkstraTime / 1e6, sweptTime / 1e6, mismatches);
+    }
+
+    /**
+     * Runs the same random queries with A* and the hierarchy and prints their times and any cost differences.
+     */
+    static void compareQueries(GraphSnapshot snapshot, ContractionHierarchy hierarchy, ArrayList<Node> nodes, int queries, Random random) {
+        long aStarTime = 0;
+        long hierarchyTime = 0;
+        int mismatches = 0;
+        ContractionHierarchy.UpwardSearch forward = new ContractionHierarchy.UpwardSearch();
+        ContractionHierarchy.UpwardSearch backward = new ContractionHierarchy.UpwardSearch();
+        for (int i = 0; i < queries; i++) {
+            Node start = nodes.get(random.nextInt(nodes.size()));
+            Node goal = nodes.get(random.nextInt(nodes.size()));
+
+            long begin = System.nanoTime();
+            ArrayList<Node> expected = snapshot.findPath(start, goal, true);
+            aStarTime += System.nanoTime() - begin;
+
+            begin = System.nanoTime();
+            ArrayList<Node> actual = hierarchy.findPath(start, goal, forward, backward);
+            hierarchyTime += System.nanoTime() - begin;
+
+            if (expected.isEmpty() != actual.isEmpty() || !close(pathCost(expected), pathCost(actual))) {
+                mismatches++;
+            }
+        }
+        System.out.printf("queries:   A* %.3f ms, hierarchy %.3f ms per query, %d mismatches%n",
+                aStarTime / 1e6 / queries, hierarchyTime / 1e6 / queries, mismatches);
+    }
+
+    /**
+     * Scatters nodes over a square and connects every pair closer than a fixed radius,
+     * with a density that gives each node about six neighbors.
+     */
+    static ArrayList<Node> buildGraph(PApplet parent, int count, Random random) {
+        float radius = 50;
+        float side = (float) Math.sqrt(count * Math.PI * radius * radius / 6);
+        int cells = Math.max(1, (int) (side / radius));
+        ArrayList<ArrayList<Node>> grid = new ArrayList<>();
+        for (int i = 0; i < cells * cells; i++) {
+            grid.add(new ArrayList<>());
+        }
+
+        ArrayList<Node> nodes = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Node node = new Node(parent, random.nextFloat() * side, random.nextFloat() * side);
+            node.id = i;
+            nodes.add(node);
+            grid.get(cell(node.position.y, cells, side) * cells + cell(node.position.x, cells, side)).add(node);
+        }
+        for (Node node : nodes) {
+            int col = cell(node.position.x, cells, side);
+            int row = cell(node.position.y, cells, side);
+            for (int r = Math.max(0, row - 1); r <= Math.min(cells - 1, row + 1); r++) {
+                for (int c = Math.max(0, col - 1); c <= Math.min(cells - 1, col + 1); c++) {
+                    for (Node other : grid.get(r * cells + c)) {
+                        float distance = PVector.dist(node.position, other.position);
+                        if (other != node && distance < radius) {
+                            node.addEdge(other, distance);
+                        }
+                    }
+                }
+            }
+        }
+        return nodes;
+    }
+
+    static int cell(float coordinate, int cells, float side) {
+        return Math.min(cells - 1, (int) (coordinate / side * cells));
+    }
+
+    static void setWeight(Node from, Node to, float weight) {
+        for (Edge edge : from.edges) {
+            if (edge.destination == to) {
+                edge.weight = weight;
+            }
+        }
+    }
+
+    /**
+     * Sums the current edge costs along a path.
+     */
+    static float pathCost(ArrayList<Node> path) {
+        float cost = 0;
+        for (int i = 1; i < path.size(); i++) {
+            float step = Float.MAX_VALUE;
+            for (Edge edge : path.get(i - 1).edges) {
+                if (edge.destination == path.get(i)) {
+                    step = Math.min(step, edge.weight);
+                }
+            }
+            cost += step;
+        }
+        return cost;
+    }
+
+    static boolean close(float a, float b) {
+        return Math.abs(a - b) <= 1e-3f * Math.max(1, Math.max(a, b));
+    }
+}
@@ -0,0 +1,247 @@
+import java.util.*;
+
+/**
+ * Cooperative path planner for a squad of tanks (WHCA* style).
+ * Tanks are planned one after another in space-time over the navigation graph, and each
+ * planned path is written into a reservation table so that later tanks wait or take
+ * another route instead of colliding. Reservations are only respected inside a time window,
+ * beyond it the remaining path follows the shortest path tree of the goal.
+ */
+class CooperativePlanner {
+    float stepDistance;
+    int window;
+    int maxExpansions;
+
+    HashMap<Node, BitSet> nodeReservations;
+    HashMap<Edge, BitSet> edgeReservations;
+    HashMap<Node, Integer> parkedFrom;
+
+    /**
+     * Planned route of one tank with the time step it arrives at and leaves every node.
+     */
+    static class Plan {
+        ArrayList<Node> nodes = new ArrayList<>();
+        ArrayList<Integer> arrivalSteps = new ArrayList<>();
+        ArrayList<Integer> departureSteps = new ArrayList<>();
+
+        /**
+         * Gets the step the tank reaches its goal.
+         * @return Arrival step at the last node
+         */
+        int arrivalStep() {
+            return arrivalSteps.get(arrivalSteps.size() - 1);
+        }
+    }
+
+    /**
+     * Search state: a node at a time step.
+     */
+    static class State {
+        Node node;
+        int step;
+        float f;
+        State previous;
+
+        State(Node node, int step, float f, State previous) {
+            this.node = node;
+            this.step = step;
+            this.f = f;
+            this.previous = previous;
+        }
+    }
+
+    /**
+     * Constructor for the cooperative planner.
+     * @param stepDistance Distance a tank covers in one time step
+     * @param window Number of time steps in which reservations are respected
+     */
+    CooperativePlanner(float stepDistance, int window) {
+        this.stepDistance = stepDistance;
+        this.window = window;
+        this.maxExpansions = 20000;
+        this.nodeReservations = new HashMap<>();
+        this.edgeReservations = new HashMap<>();
+        this.parkedFrom = new HashMap<>();
+    }
+
+    /**
+     * Plans a path for one tank around the reservations of the tanks planned before it,
+     * then reserves the new path.
+     * @param start The node the tank starts at
+     * @param goal The node the tank should end at
+     * @param tree Shortest path tree rooted at the goal, used as heuristic and beyond the window
+     * @return The planned path, or null if no path was found
+     */
+    Plan planAgent(Node start, Node goal, ShortestPathTree tree) {
+        if (!tree.contains(start)) return null;
+
+        PriorityQueue<State> openSet = new PriorityQueue<>((a, b) -> {
+            int compare = Float.compare(a.f, b.f);
+            return compare != 0 ? compare : Integer.compare(b.step, a.step);
+        });
+        HashMap<Node, BitSet> closed = new HashMap<>();
+
+        openSet.add(new State(start, 0, heuristic(start, tree), null));
+        int expansions = 0;
+
+        while (!openSet.isEmpty() && expansions < maxExpansions) {
+            State current = openSet.poll();
+            BitSet closedSteps = closed.computeIfAbsent(current.node, n -> new BitSet());
+            if (closedSteps.get(current.step)) continue;
+            closedSteps.set(current.step);
+            expansions++;
+
+            if (current.node == goal && isFreeFrom(goal, current.step)) {
+                Plan plan = buildPlan(current, null);
+                reserve(plan);
+                return plan;
+            }
+
+            if (current.step >= window) {
+                Plan plan = buildPlan(current, tree);
+                reserve(plan);
+                return plan;
+            }
+
+            // Wait in place
+            if (isFree(current.node, current.step + 1)) {
+                openSet.add(new State(current.node, current.step + 1, current.step + 1 + heuristic(current.node, tree), current));
+            }
+
+            for (Edge edge : current.node.edges) {
+                if (!edge.traversable || !tree.contains(edge.destination)) continue;
+
+                int arrival = current.step + duration(edge);
+                if (!isFree(edge.destination, arrival) || !isEdgeFree(edge, current.step, arrival)) continue;
+
+                openSet.add(new State(edge.destination, arrival, arrival + heuristic(edge.destination, tree), current));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Turns a chain of search states into a plan. If a tree is given the plan is
+     * completed along the tree from the last state, without waiting.
+     */
+    private Plan buildPlan(State last, ShortestPathTree tree) {
+        ArrayList<State> states = new ArrayList<>();
+        for (State state = last; state != null; state = state.previous) {
+            states.add(0, state);
+        }
+
+        Plan plan = new Plan();
+        for (State state : states) {
+            int lastIndex = plan.nodes.size() - 1;
+            if (lastIndex >= 0 && plan.nodes.get(lastIndex) == state.node) {
+                continue;
+            }
+            if (lastIndex >= 0) {
+                plan.departureSteps.set(lastIndex, state.step - stepsBetween(plan.nodes.get(lastIndex), state.node));
+            }
+            plan.nodes.add(state.node);
+            plan.arrivalSteps.add(state.step);
+            plan.departureSteps.add(-1);
+        }
+
+        if (tree != null) {
+            Node current = last.node;
+            int step = last.step;
+            while (current != tree.root) {
+                Node next = tree.next.get(current);
+                int lastIndex = plan.nodes.size() - 1;
+                plan.departureSteps.set(lastIndex, step);
+                step += stepsBetween(current, next);
+                plan.nodes.add(next);
+                plan.arrivalSteps.add(step);
+                plan.departureSteps.add(-1);
+                current = next;
+            }
+        }
+        return plan;
+    }
+
+    /**
+     * Writes a plan into the reservation table.
+     * @param plan The plan to reserve
+     */
+    void reserve(Plan plan) {
+        for (int i = 0; i < plan.nodes.size(); i++) {
+            Node node = plan.nodes.get(i);
+            int arrival = plan.arrivalSteps.get(i);
+            int departure = plan.departureSteps.get(i);
+
+            if (departure < 0) {
+                parkedFrom.put(node, arrival);
+                continue;
+            }
+            nodeReservations.computeIfAbsent(node, n -> new BitSet()).set(arrival, departure + 1);
+
+            Node next = plan.nodes.get(i + 1);
+            int nextArrival = plan.arrivalSteps.get(i + 1);
+            for (Edge edge : node.edges) {
+                if (edge.destination == next) {
+                    edgeReservations.computeIfAbsent(edge, e -> new BitSet()).set(departure, nextArrival);
+                }
+            }
+            for (Edge edge : next.edges) {
+                if (edge.destination == node) {
+                    edgeReservations.computeIfAbsent(edge, e -> new BitSet()).set(departure, nextArrival);
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks if a node is free at a time step.
+     */
+    boolean isFree(Node node, int step) {
+        if (step >= window) return true;
+        Integer parked = parkedFrom.get(node);
+        if (parked != null && parked <= step) return false;
+        BitSet reserved = nodeReservations.get(node);
+        return reserved == null || !reserved.get(step);
+    }
+
+    /**
+     * Checks if a node stays free from a time step on, so a tank can park there.
+     */
+    private boolean isFreeFrom(Node node, int step) {
+        if (parkedFrom.containsKey(node)) return false;
+        BitSet reserved = nodeReservations.get(node);
+        return reserved == null || reserved.nextSetBit(step) == -1;
+    }
+
+    /**
+     * Checks that no other tank uses an edge, in either direction, between two time steps.
+     */
+    private boolean isEdgeFree(Edge edge, int fromStep, int toStep) {
+        if (fromStep >= window) return true;
+        BitSet reserved = edgeReservations.get(edge);
+        if (reserved != null) {
+            int next = reserved.nextSetBit(fromStep);
+            if (next != -1 && next < toStep) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Gets the number of time steps needed to traverse an edge.
+     */
+    private int duration(Edge edge) {
+        return Math.max(1, (int) Math.ceil(edge.weight / stepDistance));
+    }
+
+    private int stepsBetween(Node from, Node to) {
+        for (Edge edge : from.edges) {
+            if (edge.destination == to) {
+                return duration(edge);
+            }
+        }
+        return 1;
+    }
+
+    private float heuristic(Node node, ShortestPathTree tree) {
+        return tree.distance.get(node) / stepDistance;
+    }
+}
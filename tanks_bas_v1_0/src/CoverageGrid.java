@@ -0,0 +1,318 @@
+import processing.core.PVector;
+
+import java.util.*;
+import java.util.function.IntConsumer;
+
+/**
+ * Coverage map of the playing field as a grid of explored and unexplored cells.
+ * Frontier cells, explored cells next to an unexplored one, are kept up to date incrementally
+ * every time cells are explored, and grouped into clusters only when a tank asks for a goal.
+ */
+class CoverageGrid {
+    float cellSize;
+    int cols;
+    int rows;
+    BitSet explored;
+    BitSet blocked;
+    BitSet revealedBlocked;
+    BitSet frontier;
+    BitSet visited;
+    float visitedCellSize;
+    int visitedCols;
+    int visitedRows;
+    int freeCells;
+    int exploredCells;
+
+    ArrayList<Cluster> clusters;
+    boolean clustersDirty;
+    int[] casters;
+
+    /**
+     * A connected group of frontier cells.
+     */
+    static class Cluster {
+        int size;
+        PVector goal;
+        float gain;
+    }
+
+    /**
+     * Constructor for the coverage map.
+     * @param width Width of the map
+     * @param height Height of the map
+     * @param cellSize Side length of a grid cell
+     * @param visitedCellSize Side length of the cells visited positions are tracked in
+     * @param trees Trees whose cells can not be explored or used as goals
+     * @param clearance Extra distance kept from trees
+     */
+    CoverageGrid(float width, float height, float cellSize, float visitedCellSize, Tree[] trees, float clearance) {
+        this.cellSize = cellSize;
+        this.cols = (int) Math.ceil(width / cellSize);
+        this.rows = (int) Math.ceil(height / cellSize);
+        this.explored = new BitSet(cols * rows);
+        this.blocked = new BitSet(cols * rows);
+        this.revealedBlocked = new BitSet(cols * rows);
+        this.frontier = new BitSet(cols * rows);
+        this.visitedCellSize = visitedCellSize;
+        this.visitedCols = (int) Math.ceil(width / visitedCellSize);
+        this.visitedRows = (int) Math.ceil(height / visitedCellSize);
+        this.visited = new BitSet(visitedCols * visitedRows);
+        this.clusters = new ArrayList<>();
+        this.clustersDirty = true;
+
+        if (trees != null) {
+            for (Tree tree : trees) {
+                if (tree == null) continue;
+                forEachCellInDisc(tree.position.x, tree.position.y, tree.radius + clearance, blocked::set);
+            }
+        }
+        this.freeCells = cols * rows - blocked.cardinality();
+        this.exploredCells = 0;
+    }
+
+    /**
+     * Marks the visited cell a position lies in as visited by a tank.
+     * The visited cells are much smaller than the view of a tank, so two positions in the same cell
+     * see almost the same area, and take constant memory no matter how long the game runs.
+     * @param x X-coordinate of the position
+     * @param y Y-coordinate of the position
+     * @return true if the cell was not visited before
+     */
+    boolean markVisited(float x, float y) {
+        int col = Math.max(0, Math.min(visitedCols - 1, (int) (x / visitedCellSize)));
+        int row = Math.max(0, Math.min(visitedRows - 1, (int) (y / visitedCellSize)));
+        int cell = row * visitedCols + col;
+        if (visited.get(cell)) return false;
+
+        visited.set(cell);
+        return true;
+    }
+
+    /**
+     * Marks the free cells a viewer can actually see as explored, and updates the frontier around them.
+     * The visible area is the view disc minus the shadows the obstacles cast away from the viewer.
+     * Only cells that are not explored yet are tested against the shadows, so a tank standing in
+     * explored land costs almost nothing. Blocked cells next to a newly explored cell are revealed
+     * with the rest of their tree, but do not count as explored.
+     * @param x X-coordinate of the viewer
+     * @param y Y-coordinate of the viewer
+     * @param radius Radius that is seen from the center
+     * @param obstacles Obstacles that block the view, or null to see the whole disc
+     * @param revealed Called with every newly explored or revealed blocked cell, may be null
+     * @return Number of cells that were explored for the first time
+     */
+    int markVisible(float x, float y, float radius, ObstacleIndex obstacles, IntConsumer revealed) {
+        int casterCount = 0;
+        if (obstacles != null) {
+            if (casters == null || casters.length < obstacles.x.length) {
+                casters = new int[obstacles.x.length];
+            }
+            casterCount = obstacles.castersWithin(x, y, radius, casters);
+        }
+        int shadowCasters = casterCount;
+
+        int[] newlyExplored = {0};
+        forEachCellInDisc(x, y, radius, cell -> {
+            if (blocked.get(cell) || explored.get(cell)) return;
+
+            int col = cell % cols;
+            int row = cell / cols;
+            if (shadowCasters > 0 && obstacles.inShadow(x, y, (col + 0.5f) * cellSize, (row + 0.5f) * cellSize, casters, shadowCasters)) {
+                return;
+            }
+
+            explored.set(cell);
+            exploredCells++;
+            newlyExplored[0]++;
+            if (revealed != null) {
+                revealed.accept(cell);
+            }
+
+            updateFrontier(cell);
+            if (col > 0) updateFrontier(cell - 1);
+            if (col < cols - 1) updateFrontier(cell + 1);
+            if (row > 0) updateFrontier(cell - cols);
+            if (row < rows - 1) updateFrontier(cell + cols);
+
+            if (col > 0) revealBlocked(cell - 1, revealed);
+            if (col < cols - 1) revealBlocked(cell + 1, revealed);
+            if (row > 0) revealBlocked(cell - cols, revealed);
+            if (row < rows - 1) revealBlocked(cell + cols, revealed);
+        });
+        if (newlyExplored[0] > 0) {
+            clustersDirty = true;
+        }
+        return newlyExplored[0];
+    }
+
+    /**
+     * Reveals a blocked cell and every blocked cell connected to it, so the whole tree and its
+     * clearance come out of the fog once the free land next to it is seen.
+     * The shadow test can not do this, every point inside a tree is in the tree's own shadow.
+     * @param start The cell to start from, nothing happens unless it is blocked and not revealed yet
+     * @param revealed Called with every revealed cell, may be null
+     */
+    private void revealBlocked(int start, IntConsumer revealed) {
+        if (!blocked.get(start) || revealedBlocked.get(start)) return;
+
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        revealedBlocked.set(start);
+        queue.add(start);
+        while (!queue.isEmpty()) {
+            int cell = queue.poll();
+            if (revealed != null) {
+                revealed.accept(cell);
+            }
+
+            int col = cell % cols;
+            int row = cell / cols;
+            for (int neighbor : new int[]{col > 0 ? cell - 1 : -1, col < cols - 1 ? cell + 1 : -1,
+                    row > 0 ? cell - cols : -1, row < rows - 1 ? cell + cols : -1}) {
+                if (neighbor >= 0 && blocked.get(neighbor) && !revealedBlocked.get(neighbor)) {
+                    revealedBlocked.set(neighbor);
+                    queue.add(neighbor);
+                }
+            }
+        }
+    }
+
+    /**
+     * Recomputes whether one cell is on the frontier.
+     */
+    private void updateFrontier(int cell) {
+        frontier.set(cell, explored.get(cell) && hasUnexploredNeighbor(cell));
+    }
+
+    private boolean hasUnexploredNeighbor(int cell) {
+        int col = cell % cols;
+        int row = cell / cols;
+        return (col > 0 && isUnexplored(cell - 1))
+                || (col < cols - 1 && isUnexplored(cell + 1))
+                || (row > 0 && isUnexplored(cell - cols))
+                || (row < rows - 1 && isUnexplored(cell + cols));
+    }
+
+    private boolean isUnexplored(int cell) {
+        return !explored.get(cell) && !blocked.get(cell);
+    }
+
+    /**
+     * Groups the frontier cells into 8-connected clusters. Each cluster gets a goal on the frontier
+     * near its center and an information gain: the unexplored cells a tank would see from the goal.
+     * Clusters are cached until more cells are explored.
+     * @param sensorRadius Radius a tank sees around itself
+     * @return The current frontier clusters
+     */
+    ArrayList<Cluster> frontierClusters(float sensorRadius) {
+        if (!clustersDirty) return clusters;
+
+        clusters = new ArrayList<>();
+        BitSet seen = new BitSet(cols * rows);
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        ArrayList<Integer> members = new ArrayList<>();
+
+        for (int start = frontier.nextSetBit(0); start >= 0; start = frontier.nextSetBit(start + 1)) {
+            if (seen.get(start)) continue;
+
+            members.clear();
+            seen.set(start);
+            queue.add(start);
+            float sumX = 0;
+            float sumY = 0;
+            while (!queue.isEmpty()) {
+                int cell = queue.poll();
+                members.add(cell);
+                int col = cell % cols;
+                int row = cell / cols;
+                sumX += col;
+                sumY += row;
+
+                for (int dy = -1; dy <= 1; dy++) {
+                    for (int dx = -1; dx <= 1; dx++) {
+                        int newCol = col + dx;
+                        int newRow = row + dy;
+                        if (newCol < 0 || newCol >= cols || newRow < 0 || newRow >= rows) continue;
+                        int neighbor = newRow * cols + newCol;
+                        if (frontier.get(neighbor) && !seen.get(neighbor)) {
+                            seen.set(neighbor);
+                            queue.add(neighbor);
+                        }
+                    }
+                }
+            }
+
+            // The member closest to the centroid keeps the goal on the frontier even for curved clusters
+            float centerCol = sumX / members.size();
+            float centerRow = sumY / members.size();
+            int goalCell = members.get(0);
+            float bestDistance = Float.MAX_VALUE;
+            for (int cell : members) {
+                float dx = cell % cols - centerCol;
+                float dy = cell / cols - centerRow;
+                if (dx * dx + dy * dy < bestDistance) {
+                    bestDistance = dx * dx + dy * dy;
+                    goalCell = cell;
+                }
+            }
+
+            Cluster cluster = new Cluster();
+            cluster.size = members.size();
+            cluster.goal = cellCenter(goalCell);
+            cluster.gain = unexploredCellsWithin(cluster.goal.x, cluster.goal.y, sensorRadius);
+            clusters.add(cluster);
+        }
+
+        clustersDirty = false;
+        return clusters;
+    }
+
+    /**
+     * Counts the unexplored free cells within a radius.
+     * @param x X-coordinate of the center
+     * @param y Y-coordinate of the center
+     * @param radius Radius to count in
+     * @return Number of unexplored cells
+     */
+    int unexploredCellsWithin(float x, float y, float radius) {
+        int[] count = {0};
+        forEachCellInDisc(x, y, radius, cell -> {
+            if (isUnexplored(cell)) count[0]++;
+        });
+        return count[0];
+    }
+
+    /**
+     * Gets the explored share of all cells that can be explored.
+     * @return Explored percentage between 0 and 100
+     */
+    float exploredPercent() {
+        return freeCells == 0 ? 100 : exploredCells * 100.0f / freeCells;
+    }
+
+    /**
+     * Gets the center position of a cell.
+     */
+    PVector cellCenter(int cell) {
+        return new PVector((cell % cols + 0.5f) * cellSize, (cell / cols + 0.5f) * cellSize);
+    }
+
+    /**
+     * Calls an action for every cell whose center lies within a disc.
+     */
+    private void forEachCellInDisc(float x, float y, float radius, IntConsumer action) {
+        int minCol = Math.max(0, (int) ((x - radius) / cellSize));
+        int maxCol = Math.min(cols - 1, (int) ((x + radius) / cellSize));
+        int minRow = Math.max(0, (int) ((y - radius) / cellSize));
+        int maxRow = Math.min(rows - 1, (int) ((y + radius) / cellSize));
+
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int col = minCol; col <= maxCol; col++) {
+                float dx = (col + 0.5f) * cellSize - x;
+                float dy = (row + 0.5f) * cellSize - y;
+                if (dx * dx + dy * dy <= radius * radius) {
+                    action.accept(row * cols + col);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,250 @@
+import processing.core.PVector;
+
+import java.util.*;
+
+/**
+ * Incremental D* Lite planner for a single tank.
+ * Searches backwards from the goal and keeps its search tree between replans,
+ * so a moving start or a changed edge only repairs the affected part of the tree.
+ */
+class DStarLite {
+    Node start;
+    Node goal;
+    Node lastStart;
+    float km;
+
+    HashMap<Node, Float> g;
+    HashMap<Node, Float> rhs;
+    HashMap<Node, QueueEntry> openEntries;
+    PriorityQueue<QueueEntry> open;
+
+    int maxExpansions;
+
+    /**
+     * Entry in the open list. Entries that are no longer in openEntries are stale and skipped.
+     */
+    static class QueueEntry {
+        Node node;
+        float k1;
+        float k2;
+
+        QueueEntry(Node node, float k1, float k2) {
+            this.node = node;
+            this.k1 = k1;
+            this.k2 = k2;
+        }
+    }
+
+    /**
+     * Constructor for the incremental planner.
+     * @param start The node the tank is currently closest to
+     * @param goal The node the tank is travelling to
+     */
+    DStarLite(Node start, Node goal) {
+        this.start = start;
+        this.goal = goal;
+        this.lastStart = start;
+        this.km = 0;
+        this.g = new HashMap<>();
+        this.rhs = new HashMap<>();
+        this.openEntries = new HashMap<>();
+        this.open = new PriorityQueue<>((a, b) -> compareKeys(a.k1, a.k2, b.k1, b.k2));
+        this.maxExpansions = 100000;
+
+        rhs.put(goal, 0f);
+        insert(goal);
+    }
+
+    /**
+     * Moves the start of the search to a new node without discarding the search tree.
+     * @param newStart The node the tank is now closest to
+     */
+    void updateStart(Node newStart) {
+        if (newStart == null || newStart == start) return;
+        km += heuristic(lastStart, newStart);
+        lastStart = newStart;
+        start = newStart;
+    }
+
+    /**
+     * Repairs the search tree after an edge between two nodes was added or changed cost.
+     * @param u First node of the changed edge
+     * @param v Second node of the changed edge
+     */
+    void edgeChanged(Node u, Node v) {
+        updateVertex(u);
+        updateVertex(v);
+    }
+
+    /**
+     * Repairs the search tree and returns the current shortest path from start to goal.
+     * @return List of nodes from start to goal, or an empty list if the goal is unreachable
+     */
+    ArrayList<Node> replan() {
+        computeShortestPath();
+        return extractPath();
+    }
+
+    /**
+     * Expands inconsistent nodes until the start node is consistent.
+     */
+    void computeShortestPath() {
+        int expansions = 0;
+        while (!open.isEmpty() && expansions < maxExpansions) {
+            QueueEntry top = peek();
+            if (top == null) break;
+
+            float startG = getG(start);
+            float startRhs = getRhs(start);
+            float startK1 = Math.min(startG, startRhs) + km;
+            float startK2 = Math.min(startG, startRhs);
+            if (compareKeys(top.k1, top.k2, startK1, startK2) >= 0 && startRhs == startG) {
+                break;
+            }
+
+            open.poll();
+            openEntries.remove(top.node);
+            expansions++;
+
+            Node u = top.node;
+            float[] newKey = calculateKey(u);
+            float gU = getG(u);
+            float rhsU = getRhs(u);
+
+            if (compareKeys(top.k1, top.k2, newKey[0], newKey[1]) < 0) {
+                insert(u);
+            } else if (gU > rhsU) {
+                g.put(u, rhsU);
+                for (Edge edge : u.edges) {
+                    updateVertex(edge.destination);
+                }
+            } else {
+                g.put(u, Float.POSITIVE_INFINITY);
+                updateVertex(u);
+                for (Edge edge : u.edges) {
+                    updateVertex(edge.destination);
+                }
+            }
+        }
+    }
+
+    /**
+     * Follows the cheapest successors from start to goal.
+     * @return List of nodes from start to goal, or an empty list if no path exists
+     */
+    ArrayList<Node> extractPath() {
+        ArrayList<Node> path = new ArrayList<>();
+        if (getG(start) == Float.POSITIVE_INFINITY && start != goal) {
+            return path;
+        }
+
+        HashSet<Node> seen = new HashSet<>();
+        Node current = start;
+        path.add(current);
+        seen.add(current);
+
+        while (current != goal) {
+            Node best = null;
+            float bestCost = Float.POSITIVE_INFINITY;
+            for (Edge edge : current.edges) {
+                float cost = edgeCost(edge) + getG(edge.destination);
+                if (cost < bestCost) {
+                    bestCost = cost;
+                    best = edge.destination;
+                }
+            }
+            if (best == null || !seen.add(best)) {
+                return new ArrayList<>();
+            }
+            path.add(best);
+            current = best;
+        }
+        return path;
+    }
+
+    /**
+     * Recomputes the one-step lookahead value of a node and updates its open list entry.
+     * @param u The node to update
+     */
+    void updateVertex(Node u) {
+        if (u != goal) {
+            float best = Float.POSITIVE_INFINITY;
+            for (Edge edge : u.edges) {
+                float cost = edgeCost(edge) + getG(edge.destination);
+                if (cost < best) {
+                    best = cost;
+                }
+            }
+            rhs.put(u, best);
+        }
+
+        openEntries.remove(u);
+        if (getG(u) != getRhs(u)) {
+            insert(u);
+        }
+    }
+
+    /**
+     * Gets the traversal cost of an edge, treating blocked edges as impassable.
+     * @param edge The edge to evaluate
+     * @return The edge weight, or infinity if the edge is not traversable
+     */
+    private float edgeCost(Edge edge) {
+        return edge.traversable ? edge.weight : Float.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Adds a node to the open list with its current key.
+     * @param u The node to insert
+     */
+    private void insert(Node u) {
+        float[] key = calculateKey(u);
+        QueueEntry entry = new QueueEntry(u, key[0], key[1]);
+        openEntries.put(u, entry);
+        open.add(entry);
+    }
+
+    /**
+     * Returns the top open list entry, discarding stale entries on the way.
+     * @return The entry with the smallest key, or null if the open list is empty
+     */
+    private QueueEntry peek() {
+        while (!open.isEmpty()) {
+            QueueEntry top = open.peek();
+            if (openEntries.get(top.node) == top) {
+                return top;
+            }
+            open.poll();
+        }
+        return null;
+    }
+
+    /**
+     * Calculates the D* Lite priority key of a node.
+     * @param u The node to calculate the key for
+     * @return Two element key array
+     */
+    private float[] calculateKey(Node u) {
+        float m = Math.min(getG(u), getRhs(u));
+        return new float[]{m + heuristic(start, u) + km, m};
+    }
+
+    private float getG(Node u) {
+        Float value = g.get(u);
+        return value == null ? Float.POSITIVE_INFINITY : value;
+    }
+
+    private float getRhs(Node u) {
+        Float value = rhs.get(u);
+        return value == null ? Float.POSITIVE_INFINITY : value;
+    }
+
+    private float heuristic(Node a, Node b) {
+        return PVector.dist(a.position, b.position);
+    }
+
+    private static int compareKeys(float a1, float a2, float b1, float b2) {
+        int first = Float.compare(a1, b1);
+        return first != 0 ? first : Float.compare(a2, b2);
+    }
+}
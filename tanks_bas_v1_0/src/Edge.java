@@ -7,6 +7,8 @@ class Edge {
     Node source;
     Node destination;
     float weight;
+    float length;
+    float congestion;
     boolean traversable;
     int useCount;
     /**
@@ -19,6 +21,8 @@ class Edge {
         this.source = source;
         this.destination = destination;
         this.weight = weight;
+        this.length = weight;
+        this.congestion = 0;
         this.traversable = true;
         this.useCount = 0;
     }
@@ -1,6 +1,7 @@
 import processing.core.*;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Manages the exploration behavior and fog of war for multiple tanks.
@@ -16,15 +17,78 @@ class ExplorationManager {
     int fogColor;
     int fogAlpha;
     boolean initialized;
-    ArrayList<PVector> visitedPositions;
 
     ArrayList<Node> nodes;
+    float[] nodeX;
+    float[] nodeY;
     ArrayList<Edge> edges;
     HashMap<Tank, Node> currentNodes;
     HashMap<Tank, Node> targetNodes;
     HashMap<Tank, Node> baseNodes;
     HashMap<Tank, Node> enemyBaseNodes;
-    HashMap<Tank, ArrayList<PVector>> paths;
+    HashMap<Tank, WaypointPath> paths;
+    boolean smoothPaths;
+    HashMap<Tank, DStarLite> replanners;
+    HashMap<Node, ShortestPathTree> pathTrees;
+    int graphVersion;
+    int topologyVersion;
+    HashMap<Tank, FlowField> flowFields;
+    boolean flowFieldMode;
+    float flowFieldCellSize;
+    float flowFieldRegionRadius;
+    HashMap<Tank, CooperativePlanner.Plan> schedules;
+    HashMap<Tank, Long> scheduleStartTicks;
+    int cooperativeTicksPerStep;
+    int cooperativeWindow;
+    long tickCount;
+    AgentScheduler agentScheduler;
+    PathPlanningService planningService;
+    volatile GraphSnapshot snapshot;
+    HashSet<Node> changedNodes;
+    HashMap<Tank, CompletableFuture<ArrayList<Node>>> pendingPaths;
+    HashMap<Tank, Node> pendingGoals;
+    boolean asyncPlanning;
+    HashMap<Tank, ResumableSearch> activeSearches;
+    int planningBudgetExpansions;
+    long planningBudgetMicros;
+    int searchRoundRobin;
+    boolean altMode;
+    int landmarkCount;
+    LandmarkTable landmarks;
+    GraphSnapshot landmarkSnapshot;
+    GraphSnapshot refreshingSnapshot;
+    CompletableFuture<LandmarkTable> landmarkRefresh;
+    boolean hierarchyMode;
+    int hierarchyStableTicks;
+    long lastTopologyChangeTick;
+    ContractionHierarchy hierarchy;
+    HashMap<Node, ShortestPathTree> hierarchyTrees;
+    CompletableFuture<ContractionHierarchy> hierarchyBuild;
+    ContractionHierarchy.UpwardSearch forwardSearch;
+    ContractionHierarchy.UpwardSearch backwardSearch;
+    HashSet<Edge> congestedEdges;
+    float traversalCongestion;
+    float collisionCongestion;
+    float stuckCongestion;
+    float congestionDecay;
+    int congestionUpdateInterval;
+    CoverageGrid coverage;
+    boolean frontierMode;
+    float coverageCellSize;
+    float visitedCellSize;
+    long explorationStartMillis;
+    boolean coverageGoalReported;
+    ExplorationScheduler scheduler;
+    float minTargetValue;
+    int allocationInterval;
+    long lastAllocationTick;
+    float allocationHysteresis;
+    boolean refineMode;
+    GraphRefiner refiner;
+    ObstacleIndex obstacles;
+    CompletableFuture<GraphRefiner.Patch> refinement;
+    int refineStart;
+    int refineInterval;
     Random random;
 
     List<Tank> tanks;
@@ -41,9 +105,9 @@ class ExplorationManager {
     HashMap<Tank, Long> homeArrivalTime;
     Long allTanksHomeTime;
 
-    int clearedPixels;
-    int totalPixels;
     float exploredPercent;
+    int[] fogCells;
+    int fogCellCount;
     HashMap<Tank, Integer> startPositionCounters;
 
     boolean testDijkstra;
@@ -77,15 +141,81 @@ class ExplorationManager {
         this.fogColor = parent.color(50, 50, 50);
         this.fogAlpha = 100;
         this.initialized = false;
-        this.visitedPositions = new ArrayList<PVector>();
 
         this.nodes = new ArrayList<Node>();
+        this.nodeX = new float[256];
+        this.nodeY = new float[256];
         this.edges = new ArrayList<Edge>();
         this.tanks = new ArrayList<Tank>();
         this.currentNodes = new HashMap<Tank, Node>();
         this.targetNodes = new HashMap<Tank, Node>();
         this.baseNodes = new HashMap<Tank, Node>();
-        this.paths = new HashMap<Tank, ArrayList<PVector>>();
+        this.paths = new HashMap<Tank, WaypointPath>();
+        this.smoothPaths = true;
+        this.replanners = new HashMap<Tank, DStarLite>();
+        this.pathTrees = new HashMap<Node, ShortestPathTree>();
+        this.graphVersion = 0;
+        this.topologyVersion = 0;
+        this.flowFields = new HashMap<Tank, FlowField>();
+        this.flowFieldMode = false;
+        this.flowFieldCellSize = 20;
+        this.flowFieldRegionRadius = 250;
+        this.schedules = new HashMap<Tank, CooperativePlanner.Plan>();
+        this.scheduleStartTicks = new HashMap<Tank, Long>();
+        this.cooperativeTicksPerStep = 10;
+        this.cooperativeWindow = 40;
+        this.tickCount = 0;
+        this.agentScheduler = new AgentScheduler(this);
+        this.planningService = new PathPlanningService(2);
+        this.snapshot = null;
+        this.changedNodes = new HashSet<Node>();
+        this.pendingPaths = new HashMap<Tank, CompletableFuture<ArrayList<Node>>>();
+        this.pendingGoals = new HashMap<Tank, Node>();
+        this.asyncPlanning = true;
+        this.activeSearches = new HashMap<Tank, ResumableSearch>();
+        this.planningBudgetExpansions = 2000;
+        this.planningBudgetMicros = 2000;
+        this.searchRoundRobin = 0;
+        this.altMode = true;
+        this.landmarkCount = 8;
+        this.landmarks = null;
+        this.landmarkSnapshot = null;
+        this.refreshingSnapshot = null;
+        this.landmarkRefresh = null;
+        this.hierarchyMode = true;
+        this.hierarchyStableTicks = 300;
+        this.lastTopologyChangeTick = 0;
+        this.hierarchy = null;
+        this.hierarchyTrees = new HashMap<Node, ShortestPathTree>();
+        this.hierarchyBuild = null;
+        this.forwardSearch = new ContractionHierarchy.UpwardSearch();
+        this.backwardSearch = new ContractionHierarchy.UpwardSearch();
+        this.congestedEdges = new HashSet<Edge>();
+        this.traversalCongestion = 0.2f;
+        this.collisionCongestion = 0.02f;
+        this.stuckCongestion = 1.0f;
+        this.congestionDecay = 0.9f;
+        this.congestionUpdateInterval = 30;
+        this.coverage = null;
+        this.frontierMode = true;
+        this.coverageCellSize = 20;
+        // Small against the 50 px view radius, so where a tank stands inside a cell barely changes what it sees
+        this.visitedCellSize = 4;
+        this.explorationStartMillis = 0;
+        this.coverageGoalReported = false;
+        this.scheduler = new ExplorationScheduler(100.0f, 60, 0.9f);
+        this.minTargetValue = 50.0f;
+        this.allocationInterval = 60;
+        this.lastAllocationTick = 0;
+        this.allocationHysteresis = 1.25f;
+        this.refineMode = true;
+        this.refiner = new GraphRefiner(225, 0.2f, 10, 200);
+        this.obstacles = null;
+        this.fogCells = new int[64];
+        this.fogCellCount = 0;
+        this.refinement = null;
+        this.refineStart = 0;
+        this.refineInterval = 120;
         this.random = new Random();
         this.autoExplore = false;
         this.minNodeDistance = 50;
@@ -150,8 +280,9 @@ class ExplorationManager {
         samePositionCounters.put(tank, 0);
         navStates.put(tank, NavigationState.EXPLORING);
         startPositionCounters.put(tank, 0);
-        paths.put(tank, new ArrayList<PVector>());
+        paths.put(tank, new WaypointPath());
         homeArrivalTime.put(tank, 0L);
+        agentScheduler.addTank(tank);
 
         Node tankBaseNode = null;
         for (Node existingNode : nodes) {
@@ -163,13 +294,11 @@ class ExplorationManager {
 
         if (tankBaseNode == null) {
             tankBaseNode = new Node(parent, tank.position.x, tank.position.y);
-            nodes.add(tankBaseNode);
+            registerNode(tankBaseNode);
         }
 
         currentNodes.put(tank, tankBaseNode);
         baseNodes.put(tank, tankBaseNode);
-
-        visitedPositions.add(tank.position.copy());
     }
 
     /**
@@ -194,12 +323,19 @@ class ExplorationManager {
         navStates.remove(tank);
         startPositionCounters.remove(tank);
         paths.remove(tank);
+        replanners.remove(tank);
+        flowFields.remove(tank);
+        schedules.remove(tank);
+        scheduleStartTicks.remove(tank);
+        pendingPaths.remove(tank);
+        pendingGoals.remove(tank);
+        activeSearches.remove(tank);
+        scheduler.release(tank);
         homeArrivalTime.remove(tank);
     }
 
     /**
      * Initializes the fog of war graphics layer.
-     * Creates the fog overlay and sets up pixel tracking for exploration percentage.
      */
     void initializeFog() {
         if (parent.width > 0 && parent.height > 0) {
@@ -208,9 +344,6 @@ class ExplorationManager {
             fogLayer.background(fogColor, fogAlpha);
             fogLayer.endDraw();
             initialized = true;
-            fogLayer.loadPixels();
-            totalPixels = fogLayer.width * fogLayer.height;
-            clearedPixels = 0;
         }
     }
 
@@ -219,6 +352,7 @@ class ExplorationManager {
      * Handles stuck detection, node creation, and visited position tracking.
      */
     void updateTankPositions() {
+        tickCount++;
         for (Tank tank : tanks) {
             updateTankPosition(tank);
         }
@@ -237,8 +371,10 @@ class ExplorationManager {
         int samePositionCounter = samePositionCounters.get(tank);
 
         if (autoExplore && PVector.dist(tank.position, lastPosition) < 1.0f) {
-            samePositionCounter++;
+            // A tank waiting for its turn in the cooperative plan stands still on purpose
+            samePositionCounter = isWaitingOnSchedule(tank) ? 0 : samePositionCounter + 1;
             if (samePositionCounter > 60) {
+                penalizeCurrentLeg(tank);
                 handleStuckTank(tank);
                 samePositionCounter = 0;
             }
@@ -249,24 +385,17 @@ class ExplorationManager {
 
         samePositionCounters.put(tank, samePositionCounter);
 
-        PVector currentPos = tank.position.copy();
-        boolean alreadyVisited = false;
-
-        for (PVector pos : visitedPositions) {
-            if (PVector.dist(pos, currentPos) < 30) {
-                alreadyVisited = true;
-                break;
-            }
-        }
-
-        if (!alreadyVisited) {
-            visitedPositions.add(currentPos);
-            updateFog();
-        }
+        updateCoverage(tank);
 
         Node closestNode = findClosestNode(tank.position);
         if (closestNode != null && PVector.dist(closestNode.position, tank.position) < 20) {
-            currentNodes.put(tank, closestNode);
+            Node previousNode = currentNodes.put(tank, closestNode);
+            if (previousNode != null && previousNode != closestNode) {
+                recordTraversal(previousNode, closestNode);
+            }
+            if (autoExplore && !isInHomeBase(closestNode.position)) {
+                scheduler.observe(closestNode, parent.millis());
+            }
         }
 
         if (findClosestNode(tank.position) == null ||
@@ -276,31 +405,164 @@ class ExplorationManager {
     }
 
     /**
-     * Handles a tank that appears to be stuck by changing its direction randomly.
-     * Attempts to help the tank escape from stuck positions.
+     * Handles a tank that appears to be stuck.
+     * Tanks following a path are replanned incrementally, other tanks change direction randomly.
      *
      * @param tank The tank that appears to be stuck
      */
     void handleStuckTank(Tank tank) {
+        NavigationState navState = navStates.get(tank);
+        if (navState == NavigationState.RETURNING_HOME || navState == NavigationState.POSITION_AROUND_ENEMY_BASE) {
+            recalculatePathFromCurrentPosition(tank);
+            return;
+        }
 
         float randomAngle = random.nextFloat() * PApplet.TWO_PI;
         PVector escapeDirection = new PVector(PApplet.cos(randomAngle), PApplet.sin(randomAngle));
-        if (navStates.get(tank) != NavigationState.POSITION_AROUND_ENEMY_BASE || navStates.get(tank) != NavigationState.ATTACK_MODE) {
-            if (Math.abs(escapeDirection.x) > Math.abs(escapeDirection.y)) {
-                tank.state = escapeDirection.x > 0 ? 1 : 2;
-                parent.println("1");
-            } else {
-                tank.state = escapeDirection.y > 0 ? 3 : 4;
-                parent.println("2");
-            }
+        if (Math.abs(escapeDirection.x) > Math.abs(escapeDirection.y)) {
+            tank.state = escapeDirection.x > 0 ? 1 : 2;
+            parent.println("1");
+        } else {
+            tank.state = escapeDirection.y > 0 ? 3 : 4;
+            parent.println("2");
         }
 
-        if (targetNodes.containsKey(tank) && targetNodes.get(tank) != null && navStates.get(tank) != NavigationState.RETURNING_HOME && navStates.get(tank) != NavigationState.POSITION_AROUND_ENEMY_BASE) {
+        if (targetNodes.containsKey(tank) && targetNodes.get(tank) != null) {
             navStates.put(tank, NavigationState.EXPLORING);
             targetNodes.put(tank, null);
         }
     }
 
+    /**
+     * Raises the cost of the edge a stuck tank is trying to traverse.
+     * The new cost is applied at once, so the replan that follows already avoids the edge.
+     *
+     * @param tank The tank that is stuck
+     */
+    void penalizeCurrentLeg(Tank tank) {
+        NavigationState navState = navStates.get(tank);
+        if (navState != NavigationState.RETURNING_HOME && navState != NavigationState.POSITION_AROUND_ENEMY_BASE) {
+            return;
+        }
+
+        Edge edge = currentLeg(tank);
+        if (edge == null) return;
+
+        edge.congestion += stuckCongestion;
+        congestedEdges.add(edge);
+        setEdgeCost(edge.source, edge.destination, edge.length * (1 + edge.congestion), edge.traversable);
+    }
+
+    /**
+     * Counts a tank moving from one node to a neighboring node and makes the edge a little
+     * more expensive for a while, so the next tank is more likely to take another corridor.
+     *
+     * @param from The node the tank came from
+     * @param to   The node the tank reached
+     */
+    void recordTraversal(Node from, Node to) {
+        Edge edge = linkEdge(from, to);
+        if (edge == null) return;
+
+        edge.useCount++;
+        edge.congestion += traversalCongestion;
+        congestedEdges.add(edge);
+    }
+
+    /**
+     * Raises the congestion of the edge a colliding tank is driving along.
+     * Called every tick the tank touches another one, so long queues cost more than a brush past.
+     * Both tanks of a collision get their own event, so each records its own leg.
+     *
+     * @param tank The tank that collided
+     */
+    void recordCollision(Tank tank) {
+        NavigationState navState = navStates.get(tank);
+        if (navState != NavigationState.RETURNING_HOME && navState != NavigationState.MOVING_TO_TARGET
+                && navState != NavigationState.POSITION_AROUND_ENEMY_BASE) {
+            return;
+        }
+
+        Edge edge = currentLeg(tank);
+        if (edge != null) {
+            edge.congestion += collisionCongestion;
+            congestedEdges.add(edge);
+        }
+    }
+
+    /**
+     * Applies the collected congestion to the edge costs as one batch and lets it decay.
+     * Runs every congestionUpdateInterval ticks, and only costs that moved noticeably are written,
+     * so the graph version does not change every frame.
+     */
+    void updateCongestion() {
+        if (congestedEdges.isEmpty() || tickCount % congestionUpdateInterval != 0) return;
+
+        Iterator<Edge> iterator = congestedEdges.iterator();
+        while (iterator.hasNext()) {
+            Edge edge = iterator.next();
+            edge.congestion *= congestionDecay;
+            if (edge.congestion < 0.05f) {
+                edge.congestion = 0;
+                iterator.remove();
+            }
+
+            float cost = edge.length * (1 + edge.congestion);
+            if (Math.abs(cost - edge.weight) > edge.length * 0.05f || (edge.congestion == 0 && cost != edge.weight)) {
+                setEdgeCost(edge.source, edge.destination, cost, edge.traversable);
+            }
+        }
+    }
+
+    /**
+     * Gets the edge a tank is driving along, from its current node toward its target node.
+     * With smoothed paths the target is often not a neighbor, then the edge pointing most
+     * in the direction of the target is used.
+     *
+     * @param tank The tank to look up
+     * @return The edge that holds the congestion of the leg, or null if the tank is not on a leg
+     */
+    Edge currentLeg(Tank tank) {
+        Node from = currentNodes.get(tank);
+        Node to = targetNodes.get(tank);
+        if (from == null || to == null || from == to) return null;
+
+        Edge direct = linkEdge(from, to);
+        if (direct != null) return direct;
+
+        PVector heading = PVector.sub(to.position, from.position).normalize();
+        Node best = null;
+        float bestAlignment = 0.7f;
+        for (Edge edge : from.edges) {
+            PVector direction = PVector.sub(edge.destination.position, from.position).normalize();
+            float alignment = heading.dot(direction);
+            if (alignment > bestAlignment) {
+                bestAlignment = alignment;
+                best = edge.destination;
+            }
+        }
+        return best == null ? null : linkEdge(from, best);
+    }
+
+    /**
+     * Gets the edge that holds the congestion of the connection between two nodes.
+     * Each connection has several Edge objects, the one leaving the node with the lower id is used.
+     *
+     * @param node1 First node of the connection
+     * @param node2 Second node of the connection
+     * @return The edge, or null if the nodes are not connected
+     */
+    Edge linkEdge(Node node1, Node node2) {
+        Node from = node1.id <= node2.id ? node1 : node2;
+        Node to = from == node1 ? node2 : node1;
+        for (Edge edge : from.edges) {
+            if (edge.destination == to) {
+                return edge;
+            }
+        }
+        return null;
+    }
+
     /**
      * Finds the closest navigation node to a given position.
      *
@@ -310,18 +572,7 @@ class ExplorationManager {
     Node findClosestNode(PVector position) {
         if (nodes.isEmpty()) return null;
 
-        Node closest = null;
-        float minDist = Float.MAX_VALUE;
-
-        for (Node node : nodes) {
-            float dist = PVector.dist(node.position, position);
-            if (dist < minDist) {
-                minDist = dist;
-                closest = node;
-            }
-        }
-
-        return closest;
+        return nodes.get(GeometryKernel.INSTANCE.nearest(position.x, position.y, nodeX, nodeY, nodes.size()));
     }
 
     /**
@@ -342,7 +593,7 @@ class ExplorationManager {
         }
 
         Node newNode = new Node(parent, x, y);
-        nodes.add(newNode);
+        registerNode(newNode);
         connectToVisibleNodes(newNode);
 
         for (Tank tank : tanks) {
@@ -354,6 +605,27 @@ class ExplorationManager {
         return newNode;
     }
 
+    /**
+     * Adds a node to the graph and gives it the next free id.
+     *
+     * @param node The node to add
+     */
+    void registerNode(Node node) {
+        node.id = nodes.size();
+        nodes.add(node);
+        if (node.id == nodeX.length) {
+            nodeX = Arrays.copyOf(nodeX, node.id * 2);
+            nodeY = Arrays.copyOf(nodeY, node.id * 2);
+        }
+        nodeX[node.id] = node.position.x;
+        nodeY[node.id] = node.position.y;
+        graphVersion++;
+        topologyVersion++;
+        if (!isInHomeBase(node.position)) {
+            scheduler.update(node);
+        }
+    }
+
     /**
      * Connects a node to all visible nearby nodes within connection range.
      *
@@ -377,20 +649,7 @@ class ExplorationManager {
      * @return true if there is clear line of sight, false if obstructed
      */
     boolean canSee(PVector from, PVector to) {
-        if (parent instanceof tanks_bas_v1_0) {
-            tanks_bas_v1_0 game = (tanks_bas_v1_0) parent;
-            Tree[] treesToCheck = game.allTrees;
-            if (treesToCheck != null) {
-                for (Tree tree : treesToCheck) {
-                    if (tree != null) {
-                        if (lineIntersectsTree(from, to, tree.position, tree.radius + 10)) {
-                            return false;
-                        }
-                    }
-                }
-            }
-        }
-        return true;
+        return getObstacles().segmentClear(from.x, from.y, to.x, to.y, 10);
     }
 
     /**
@@ -405,6 +664,85 @@ class ExplorationManager {
         edges.add(edge);
         node1.addEdge(node2, weight);
         node2.addEdge(node1, weight);
+        graphVersion++;
+        topologyVersion++;
+        changedNodes.add(node1);
+        changedNodes.add(node2);
+        notifyEdgeChanged(node1, node2);
+    }
+
+    /**
+     * Changes the weight and traversability of the connection between two nodes.
+     * Updates both directed edges and the shared edge list, then notifies the replanners.
+     *
+     * @param node1       First node of the connection
+     * @param node2       Second node of the connection
+     * @param weight      The new traversal cost
+     * @param traversable Whether the connection can be used at all
+     */
+    void setEdgeCost(Node node1, Node node2, float weight, boolean traversable) {
+        Edge link = linkEdge(node1, node2);
+        if (link != null && link.traversable != traversable) {
+            topologyVersion++;
+        }
+        for (Edge edge : node1.edges) {
+            if (edge.destination == node2) {
+                edge.weight = weight;
+                edge.traversable = traversable;
+            }
+        }
+        for (Edge edge : node2.edges) {
+            if (edge.destination == node1) {
+                edge.weight = weight;
+                edge.traversable = traversable;
+            }
+        }
+        for (Edge edge : edges) {
+            if ((edge.source == node1 && edge.destination == node2) || (edge.source == node2 && edge.destination == node1)) {
+                edge.weight = weight;
+                edge.traversable = traversable;
+            }
+        }
+        graphVersion++;
+        changedNodes.add(node1);
+        changedNodes.add(node2);
+        notifyEdgeChanged(node1, node2);
+    }
+
+    /**
+     * Removes the connection between two nodes in both directions and from the shared edge list.
+     *
+     * @param node1 First node of the connection
+     * @param node2 Second node of the connection
+     */
+    void disconnectNodes(Node node1, Node node2) {
+        Edge link = linkEdge(node1, node2);
+        if (link == null) return;
+
+        congestedEdges.remove(link);
+        node1.edges.removeIf(edge -> edge.destination == node2);
+        node2.edges.removeIf(edge -> edge.destination == node1);
+        edges.removeIf(edge -> (edge.source == node1 && edge.destination == node2) || (edge.source == node2 && edge.destination == node1));
+        graphVersion++;
+        topologyVersion++;
+        changedNodes.add(node1);
+        changedNodes.add(node2);
+        notifyEdgeChanged(node1, node2);
+    }
+
+    /**
+     * Lets every incremental replanner and cached shortest path tree repair the part of its search tree around a changed edge.
+     *
+     * @param node1 First node of the changed connection
+     * @param node2 Second node of the changed connection
+     */
+    void notifyEdgeChanged(Node node1, Node node2) {
+        for (DStarLite replanner : replanners.values()) {
+            replanner.edgeChanged(node1, node2);
+        }
+        for (ShortestPathTree tree : pathTrees.values()) {
+            tree.edgeChanged(node1, node2);
+        }
     }
 
     /**
@@ -425,6 +763,9 @@ class ExplorationManager {
 
         if (autoExplore) {
             parent.println("Auto-exploration enabled");
+            if (explorationStartMillis == 0) {
+                explorationStartMillis = parent.millis();
+            }
             for (Tank tank : tanks) {
                 navStates.put(tank, NavigationState.EXPLORING);
             }
@@ -439,6 +780,7 @@ class ExplorationManager {
     /**
      * Main navigation control method for all tanks.
      * Handles different navigation states and coordinates group behaviors.
+     * Each tank is only navigated on the ticks the agent scheduler gives it.
      */
     void navigation() {
         if (!autoExplore) return;
@@ -451,11 +793,15 @@ class ExplorationManager {
         } else if (areAllTanksOutsideEnemyBase()) {
             for (Tank tank : tanks) {
                 navStates.put(tank, NavigationState.ATTACK_MODE);
-                navigateTank(tank);
+                if (agentScheduler.isDue(tank)) {
+                    navigateTank(tank);
+                }
             }
         } else {
             for (Tank tank : tanks) {
-                navigateTank(tank);
+                if (agentScheduler.isDue(tank)) {
+                    navigateTank(tank);
+                }
             }
         }
     }
@@ -469,13 +815,15 @@ class ExplorationManager {
 
         if (tank == null) return;
 
+        collectPlannedPath(tank);
+
         NavigationState navState = navStates.get(tank);
 
         switch (navState) {
             case RETURNING_HOME:
                 tank.navState = "ReturningHome";
                 Node targetNode = targetNodes.get(tank);
-                ArrayList<PVector> path = paths.get(tank);
+                WaypointPath path = paths.get(tank);
                 int startPositionCounter = startPositionCounters.get(tank);
 
                 Node tankBaseNode = baseNodes.get(tank);
@@ -485,6 +833,7 @@ class ExplorationManager {
 
                     navStates.put(tank, NavigationState.WAITING_AT_HOME);
                     targetNodes.put(tank, null);
+                    flowFields.remove(tank);
                     tank.state = 0; // Stop moving
                     tank.navState = "Waiting at Home";
 
@@ -495,16 +844,10 @@ class ExplorationManager {
                     return;
                 }
 
-                if (targetNode != null && PVector.dist(tank.position, targetNode.position) < 20) {
-                    if (!path.isEmpty()) {
-                        path.remove(0);
-                    }
+                if (path.isCurrentWithin(tank.position.x, tank.position.y, 20)) {
+                    path.advance();
                     if (!path.isEmpty()) {
-                        PVector nextPos = path.get(0);
-                        Node nextNode = findClosestNode(nextPos);
-                        if (nextNode != null) {
-                            targetNodes.put(tank, nextNode);
-                        }
+                        targetNodes.put(tank, path.current());
                     }
                 }
 
@@ -541,6 +884,9 @@ class ExplorationManager {
                         return;
                     }
                     targetNode.markVisited();
+                    if (!isInHomeBase(targetNode.position)) {
+                        scheduler.update(targetNode);
+                    }
                     navStates.put(tank, NavigationState.EXPLORING);
                     targetNodes.put(tank, null);
                 }
@@ -560,6 +906,8 @@ class ExplorationManager {
 
                     navStates.put(tank, NavigationState.WAITING_OUTSIDE_ENEMY_BASE);
                     targetNodes.put(tank, null);
+                    flowFields.remove(tank);
+                    schedules.remove(tank);
                     tank.state = 0;
                     tank.navState = "Waiting outside enemy base";
 
@@ -569,17 +917,14 @@ class ExplorationManager {
                     return;
                 }
 
-                if (targetNode != null && PVector.dist(tank.position, targetNode.position) < 20) {
-                    if (!path.isEmpty()) {
-                        path.remove(0);
+                if (path.isCurrentWithin(tank.position.x, tank.position.y, 20)) {
+                    if (isWaitingOnSchedule(tank)) {
+                        tank.state = 0;
+                        break;
                     }
-
+                    path.advance();
                     if (!path.isEmpty()) {
-                        PVector nextPos = path.get(0);
-                        Node nextNode = findClosestNode(nextPos);
-                        if (nextNode != null) {
-                            targetNodes.put(tank, nextNode);
-                        }
+                        targetNodes.put(tank, path.current());
                     }
                 }
                 if (targetNode != null) {
@@ -614,7 +959,8 @@ class ExplorationManager {
 
     /**
      * Recalculates the path for a tank from its current position to its target.
-     * Used when tanks get stuck or need to find new routes.
+     * Used when tanks get stuck or need to find new routes. Each tank keeps a D* Lite
+     * search tree toward its goal, so repeated replans only repair what has changed.
      *
      * @param tank The tank to recalculate the path for
      */
@@ -624,64 +970,48 @@ class ExplorationManager {
             currentNode = addNode(tank.position.x, tank.position.y);
         }
         currentNodes.put(tank, currentNode);
+        schedules.remove(tank);
+        pendingPaths.remove(tank);
+        pendingGoals.remove(tank);
+        activeSearches.remove(tank);
+
+        Node goal;
+        ArrayList<Node> pathing;
         if (navStates.get(tank) == NavigationState.POSITION_AROUND_ENEMY_BASE) {
-            Node enemyBase = enemyBaseNodes.get(tank);
-            if (enemyBase == null) {
+            goal = enemyBaseNodes.get(tank);
+            if (goal == null) {
                 parent.println("Warning: No base node found for tank " + tank.name);
                 return;
             }
 
-            ArrayList<Node> pathingToEnemyBase;
-            if (testDijkstra) {
-                pathingToEnemyBase = dijkstra(currentNode, enemyBase);
+            DStarLite replanner = replanners.get(tank);
+            if (replanner == null || replanner.goal != goal) {
+                replanner = new DStarLite(currentNode, goal);
+                replanners.put(tank, replanner);
             } else {
-                pathingToEnemyBase = aStar(currentNode, enemyBase);
+                replanner.updateStart(currentNode);
             }
-
-            ArrayList<PVector> path = new ArrayList<>();
-            if (!pathingToEnemyBase.isEmpty()) {
-                for (Node node : pathingToEnemyBase) {
-                    path.add(node.position.copy());
-                }
-                paths.put(tank, path);
-
-                if (pathingToEnemyBase.size() > 1) {
-                    targetNodes.put(tank, pathingToEnemyBase.get(0));
-                } else {
-                    targetNodes.put(tank, enemyBase);
-                }
+            pathing = replanner.replan();
+        } else {
+            goal = baseNodes.get(tank);
+            if (goal == null) {
+                parent.println("Warning: No base node found for tank " + tank.name);
+                return;
             }
-        }
-        Node tankBaseNode = baseNodes.get(tank);
-        if (tankBaseNode == null) {
-            parent.println("Warning: No base node found for tank " + tank.name);
-            return;
+            pathing = pathHome(currentNode, goal);
         }
 
-        ArrayList<Node> pathingHome;
-        if (testDijkstra) {
-            pathingHome = dijkstra(currentNode, tankBaseNode);
-        } else {
-            pathingHome = aStar(currentNode, tankBaseNode);
+        // Skip the closest node if the tank has already passed it, otherwise it would turn back
+        if (pathing.size() > 1 && PVector.dist(tank.position, pathing.get(1).position) < PVector.dist(pathing.get(0).position, pathing.get(1).position)) {
+            pathing.remove(0);
         }
 
-        ArrayList<PVector> path = new ArrayList<>();
-        if (!pathingHome.isEmpty()) {
-            for (Node node : pathingHome) {
-                path.add(node.position.copy());
-            }
-            paths.put(tank, path);
-
-            if (pathingHome.size() > 1) {
-                targetNodes.put(tank, pathingHome.get(0));
-            } else {
-                targetNodes.put(tank, tankBaseNode);
-            }
-        }
+        applyPath(tank, pathing, goal);
     }
 
     /**
      * Moves a tank toward its current target node by setting appropriate direction.
+     * In flow field mode the tank follows the field of its goal region until it can see its target.
      *
      * @param tank The tank to move toward its target
      */
@@ -689,8 +1019,21 @@ class ExplorationManager {
         Node targetNode = targetNodes.get(tank);
         if (targetNode == null) return;
 
-        PVector direction = PVector.sub(targetNode.position, tank.position);
-        direction.normalize();
+        PVector direction = null;
+        FlowField field = flowFields.get(tank);
+        if (flowFieldMode && field != null && field.leadsTo(targetNode.position) && !canSee(tank.position, targetNode.position)) {
+            direction = field.directionAt(tank.position);
+        }
+        if (direction == null) {
+            // Waypoints of the path are read from its coordinate array
+            WaypointPath path = paths.get(tank);
+            if (path != null && path.current() == targetNode) {
+                direction = new PVector(path.currentX() - tank.position.x, path.currentY() - tank.position.y);
+            } else {
+                direction = PVector.sub(targetNode.position, tank.position);
+            }
+            direction.normalize();
+        }
 
         float dx = direction.x;
         float dy = direction.y;
@@ -718,13 +1061,21 @@ class ExplorationManager {
 
     /**
      * Selects the next exploration target for a tank using sensor data.
-     * Prioritizes unvisited nodes and avoids obstacles and other tanks.
+     * Takes the best frontier first, then the most valuable node from the exploration scheduler,
+     * and only then searches for open space around obstacles.
      *
      * @param tank The tank to select a target for
      * @return The selected Node for exploration, or null if none found
      */
     Node selectExplorationTarget(Tank tank) {
-        ArrayList<Node> candidates = new ArrayList<Node>();
+        if (frontierMode) {
+            Node frontierTarget = selectFrontierTarget(tank);
+            if (frontierTarget != null) {
+                scheduler.release(tank);
+                return frontierTarget;
+            }
+        }
+
         ArrayList<SensorDetection> sensorData = tank.scan(
                 ((tanks_bas_v1_0) parent).allTanks,
                 ((tanks_bas_v1_0) parent).allTrees
@@ -741,30 +1092,12 @@ class ExplorationManager {
             }
         }
 
-        for (Node node : nodes) {
-            if (!node.visited &&
-                    PVector.dist(node.position, tank.position) < maxNodeDistance * 3 &&
-                    (obstacleAhead || canSee(tank.position, node.position)) &&
-                    !isInHomeBase(node.position) &&
-                    !isNearOtherTank(node.position, tank)) {
-                candidates.add(node);
-            }
-        }
-
-        if (!candidates.isEmpty()) {
-            Node closest = null;
-            float minDist = Float.MAX_VALUE;
-
-            for (Node node : candidates) {
-                float dist = PVector.dist(node.position, tank.position);
-                if (dist < minDist) {
-                    minDist = dist;
-                    closest = node;
-                }
-            }
-
-            return closest;
+        // Targets are driven to in a straight line, so only visible ones are taken
+        Node scheduled = scheduler.next(tank, maxNodeDistance * 3, node -> canSee(tank.position, node.position));
+        if (scheduled != null && scheduler.valueAt(scheduled, parent.millis()) >= minTargetValue) {
+            return scheduled;
         }
+        scheduler.release(tank);
 
         if (obstacleAhead) {
             float clearest = 0;
@@ -807,6 +1140,159 @@ class ExplorationManager {
         return null;
     }
 
+    /**
+     * Picks the frontier cluster with the best information gain per travel cost for a tank.
+     * Only goals the tank can see are picked, since it drives to its target in a straight line.
+     *
+     * @param tank The tank to select a target for
+     * @return Node at the chosen frontier goal, or null if there is no reachable frontier
+     */
+    Node selectFrontierTarget(Tank tank) {
+        if (coverage == null) return null;
+
+        CoverageGrid.Cluster best = null;
+        float bestScore = 0;
+        for (CoverageGrid.Cluster cluster : coverage.frontierClusters(tank.fieldOfView / 2)) {
+            if (cluster.gain == 0 || isInHomeBase(cluster.goal) || isNearOtherTank(cluster.goal, tank)) continue;
+
+            float score = frontierUtility(tank, cluster);
+            if (score > bestScore) {
+                bestScore = score;
+                best = cluster;
+            }
+        }
+
+        if (best == null) return null;
+        return addNode(best.goal.x, best.goal.y);
+    }
+
+    /**
+     * Gets the information gain per travel cost of a frontier cluster for a tank.
+     * A goal behind a tree is worth nothing, the straight drive to it would end in the tree.
+     *
+     * @param tank    The tank that would explore the cluster
+     * @param cluster The frontier cluster
+     * @return Expected newly explored cells per unit of travel, or 0 if the tank can not see the goal
+     */
+    float frontierUtility(Tank tank, CoverageGrid.Cluster cluster) {
+        if (!canSee(tank.position, cluster.goal)) return 0;
+
+        float travelCost = PVector.dist(tank.position, cluster.goal) + coverageCellSize;
+        return cluster.gain / travelCost;
+    }
+
+    /**
+     * Assigns frontier goals to all exploring tanks at once with the Hungarian algorithm,
+     * so that the tanks spread out and the total expected coverage per travel cost is highest.
+     * Runs every allocationInterval ticks, or earlier when an exploring tank has no target.
+     * Keeping the current goal is favored a little so tanks do not switch back and forth.
+     * Pairs of a tank and a goal it can not see have no utility and are never assigned.
+     * Tanks that get no goal fall back to selecting a target on their own.
+     */
+    void allocateExplorationTargets() {
+        if (!autoExplore || !frontierMode || coverage == null) return;
+
+        ArrayList<Tank> explorers = new ArrayList<>();
+        boolean targetNeeded = false;
+        for (Tank tank : tanks) {
+            NavigationState navState = navStates.get(tank);
+            if (navState == NavigationState.EXPLORING) {
+                explorers.add(tank);
+                Node target = targetNodes.get(tank);
+                if (target == null || PVector.dist(tank.position, target.position) < 20) {
+                    targetNeeded = true;
+                }
+            } else if (navState == NavigationState.MOVING_TO_TARGET) {
+                explorers.add(tank);
+            }
+        }
+        if (explorers.isEmpty()) return;
+        if (!targetNeeded && tickCount - lastAllocationTick < allocationInterval) return;
+        lastAllocationTick = tickCount;
+
+        // Best clusters first, and goals so close that they would share a node count once
+        ArrayList<CoverageGrid.Cluster> clusters = new ArrayList<>(coverage.frontierClusters(explorers.get(0).fieldOfView / 2));
+        clusters.sort((a, b) -> Float.compare(b.gain, a.gain));
+        ArrayList<CoverageGrid.Cluster> candidates = new ArrayList<>();
+        for (CoverageGrid.Cluster cluster : clusters) {
+            if (candidates.size() >= explorers.size() * 3) break;
+            if (cluster.gain == 0 || isInHomeBase(cluster.goal)) continue;
+
+            boolean duplicate = false;
+            for (CoverageGrid.Cluster candidate : candidates) {
+                if (PVector.dist(candidate.goal, cluster.goal) < minNodeDistance) {
+                    duplicate = true;
+                    break;
+                }
+            }
+            if (!duplicate) {
+                candidates.add(cluster);
+            }
+        }
+        if (candidates.isEmpty()) return;
+
+        float[][] utility = new float[explorers.size()][candidates.size()];
+        for (int i = 0; i < explorers.size(); i++) {
+            Tank tank = explorers.get(i);
+            Node current = targetNodes.get(tank);
+            for (int j = 0; j < candidates.size(); j++) {
+                CoverageGrid.Cluster cluster = candidates.get(j);
+                utility[i][j] = frontierUtility(tank, cluster);
+                if (current != null && PVector.dist(current.position, cluster.goal) < minNodeDistance) {
+                    utility[i][j] *= allocationHysteresis;
+                }
+            }
+        }
+
+        int[] assignment = TaskAllocator.assign(utility);
+        for (int i = 0; i < explorers.size(); i++) {
+            // The solver fills every row, a goal with no utility is one the tank can not drive straight to
+            if (assignment[i] < 0 || utility[i][assignment[i]] <= 0) continue;
+
+            Tank tank = explorers.get(i);
+            PVector goal = candidates.get(assignment[i]).goal;
+            Node current = targetNodes.get(tank);
+            if (current != null && navStates.get(tank) == NavigationState.MOVING_TO_TARGET
+                    && PVector.dist(current.position, goal) < minNodeDistance) {
+                continue;
+            }
+
+            scheduler.release(tank);
+            targetNodes.put(tank, addNode(goal.x, goal.y));
+            navStates.put(tank, NavigationState.MOVING_TO_TARGET);
+        }
+    }
+
+    /**
+     * Marks the area a tank can see past the trees on the coverage map, clears the fog over the
+     * newly seen cells and reports when the map is 95% explored.
+     * The view is only marked the first time any tank stands in a visited cell. Those cells are a few
+     * pixels wide, so later visits to the same cell would see nearly the same area.
+     *
+     * @param tank The tank that explores
+     */
+    void updateCoverage(Tank tank) {
+        if (coverage == null) {
+            if (parent.width <= 0 || parent.height <= 0) return;
+            Tree[] trees = parent instanceof tanks_bas_v1_0 ? ((tanks_bas_v1_0) parent).allTrees : null;
+            coverage = new CoverageGrid(parent.width, parent.height, coverageCellSize, visitedCellSize, trees, 10);
+        }
+        if (!coverage.markVisited(tank.position.x, tank.position.y)) return;
+
+        fogCellCount = 0;
+        int revealed = coverage.markVisible(tank.position.x, tank.position.y, tank.fieldOfView / 2, getObstacles(), this::queueFogCell);
+        if (revealed > 0) {
+            updateFog();
+            exploredPercent = coverage.exploredPercent();
+        }
+
+        if (!coverageGoalReported && autoExplore && coverage.exploredPercent() >= 95) {
+            coverageGoalReported = true;
+            float seconds = (parent.millis() - explorationStartMillis) / 1000.0f;
+            parent.println("Map 95% explored after " + parent.nf(seconds, 1, 1) + " s (" + (frontierMode ? "frontier" : "random") + " targets)");
+        }
+    }
+
     /**
      * Checks if a position is too close to other tanks to avoid path conflicts.
      *
@@ -884,19 +1370,18 @@ class ExplorationManager {
             return false;
         }
 
-        for (Node node : nodes) {
-            if (PVector.dist(node.position, pos) < minNodeDistance) {
-                return false;
-            }
+        Node closest = findClosestNode(pos);
+        if (closest != null && PVector.dist(closest.position, pos) < minNodeDistance) {
+            return false;
+        }
+        if (!getObstacles().segmentClear(excludeTank.position.x, excludeTank.position.y, pos.x, pos.y, 0)) {
+            return false;
         }
         if (parent instanceof tanks_bas_v1_0) {
             tanks_bas_v1_0 game = (tanks_bas_v1_0) parent;
             if (game.allTrees != null) {
                 for (Tree tree : game.allTrees) {
                     if (tree != null) {
-                        if (lineIntersectsTree(excludeTank.position, pos, tree.position, tree.radius)) {
-                            return false;
-                        }
                         float dist = PVector.dist(pos, tree.position);
                         if (dist < tree.radius + 60) {
                             return false;
@@ -908,32 +1393,6 @@ class ExplorationManager {
         return true;
     }
 
-    /**
-     * Checks if a line intersects with a circular tree (local implementation).
-     *
-     * @param start  Starting point of the line
-     * @param end    Ending point of the line
-     * @param center Center of the tree
-     * @param radius Radius of the tree
-     * @return true if the line intersects the tree
-     */
-    boolean lineIntersectsTree(PVector start, PVector end, PVector center, float radius) {
-        PVector d = PVector.sub(end, start);
-        PVector f = PVector.sub(start, center);
-        float a = d.dot(d);
-        float b = 2 * f.dot(d);
-        float c = f.dot(f) - radius * radius;
-        float discriminant = b * b - 4 * a * c;
-        if (discriminant < 0) {
-            return false;
-        } else {
-            discriminant = (float) Math.sqrt(discriminant);
-            float t1 = (-b - discriminant) / (2 * a);
-            float t2 = (-b + discriminant) / (2 * a);
-            return (t1 >= 0 && t1 <= 1) || (t2 >= 0 && t2 <= 1);
-        }
-    }
-
     /**
      * Checks if all tanks are currently at their home base positions.
      * Only returns true if enemy has been detected (ready for attack phase).
@@ -989,43 +1448,37 @@ class ExplorationManager {
     }
 
     /**
-     * Updates the fog of war based on all visited positions.
-     * Calculates and updates the exploration percentage.
+     * Remembers a newly explored or revealed tree cell so its fog is cleared in the next fog update.
+     *
+     * @param cell Index of the coverage cell
+     */
+    void queueFogCell(int cell) {
+        if (fogCellCount == fogCells.length) {
+            fogCells = Arrays.copyOf(fogCells, fogCellCount * 2);
+        }
+        fogCells[fogCellCount++] = cell;
+    }
+
+    /**
+     * Clears the fog over the cells explored since the last update.
+     * Only the new cells are drawn, the rest of the fog layer is left as it is.
      */
     void updateFog() {
-        if (!initialized) return;
+        if (!initialized || fogCellCount == 0) return;
 
         fogLayer.beginDraw();
-        fogLayer.background(fogColor, fogAlpha);
-
         fogLayer.blendMode(PApplet.REPLACE);
         fogLayer.noStroke();
+        fogLayer.fill(fogColor, 0);
 
-        for (PVector pos : visitedPositions) {
-            float diameter = 100.0f; // Default FOV
-            for (Tank tank : tanks) {
-                if (PVector.dist(tank.position, pos) < 30) {
-                    diameter = tank.fieldOfView;
-                    break;
-                }
-            }
-
-            fogLayer.fill(fogColor, 0);
-            fogLayer.ellipse(pos.x, pos.y, diameter, diameter);
+        float cellSize = coverage.cellSize;
+        for (int i = 0; i < fogCellCount; i++) {
+            int cell = fogCells[i];
+            fogLayer.rect((cell % coverage.cols) * cellSize, (cell / coverage.cols) * cellSize, cellSize, cellSize);
         }
 
         fogLayer.endDraw();
-        fogLayer.loadPixels();
-        clearedPixels = 0;
-        for (int i = 0; i < totalPixels; i++) {
-            int c = fogLayer.pixels[i];
-            float alpha = parent.alpha(c);
-            if (alpha == 0) {
-                clearedPixels++;
-            }
-        }
-
-        exploredPercent = (clearedPixels / (float) totalPixels) * 100;
+        fogCellCount = 0;
     }
 
     /**
@@ -1033,7 +1486,9 @@ class ExplorationManager {
      * Shows current exploration status and navigation graph.
      */
     void display() {
-        for (Node node : nodes) {
+        GraphSnapshot graph = getSnapshot();
+
+        for (Node node : graph.nodes) {
             boolean isCurrentNode = false;
             boolean isTargetNode = false;
             boolean isBaseNode = false;
@@ -1066,14 +1521,15 @@ class ExplorationManager {
             parent.ellipse(node.position.x, node.position.y, 15, 15);
         }
 
-        // Display edges
+        // Display edges, each undirected edge once
         parent.stroke(100, 100, 200, 100);
         parent.strokeWeight(1);
-        for (Edge edge : edges) {
-            parent.line(
-                    edge.source.position.x, edge.source.position.y,
-                    edge.destination.position.x, edge.destination.position.y
-            );
+        for (int i = 0; i < graph.nodes.length; i++) {
+            for (int neighbor : graph.neighbors[i]) {
+                if (neighbor > i) {
+                    parent.line(graph.x[i], graph.y[i], graph.x[neighbor], graph.y[neighbor]);
+                }
+            }
         }
         parent.strokeWeight(1);
 
@@ -1083,6 +1539,7 @@ class ExplorationManager {
 
         parent.fill(0);
         parent.text(parent.nf(exploredPercent, 1, 2) + "% explored", 20, 20);
+        parent.text(agentScheduler.decisionsThisTick + " of " + agentScheduler.offsets.size() + " tanks deciding", 20, 40);
     }
 
     /**
@@ -1107,28 +1564,13 @@ class ExplorationManager {
             return;
         }
 
-        ArrayList<Node> pathingHome;
-
-        if (testDijkstra)
-            pathingHome = dijkstra(closestNode, tankBaseNode);
-        else
-            pathingHome = aStar(closestNode, tankBaseNode);
-
-        ArrayList<PVector> path = new ArrayList<>();
-        if (!pathingHome.isEmpty()) {
-            path.clear();
-
-            for (Node node : pathingHome) {
-                path.add(node.position.copy());
-            }
-
-            paths.put(tank, path);
-
-            if (pathingHome.size() > 1) {
-                targetNodes.put(tank, pathingHome.get(0));
-            } else {
-                targetNodes.put(tank, tankBaseNode);
-            }
+        if (testDijkstra) {
+            requestPath(tank, closestNode, tankBaseNode);
+        } else {
+            pendingPaths.remove(tank);
+            pendingGoals.remove(tank);
+            activeSearches.remove(tank);
+            applyPath(tank, pathHome(closestNode, tankBaseNode), tankBaseNode);
         }
     }
 
@@ -1138,152 +1580,127 @@ class ExplorationManager {
     void returnAllHome() {
         allTanksHomeTime = null;
 
+        if (flowFieldMode) {
+            for (Tank tank : tanks) {
+                navStates.put(tank, NavigationState.RETURNING_HOME);
+            }
+            assignFlowFields(baseNodes);
+            return;
+        }
+
         for (Tank tank : tanks) {
             returnHome(tank);
         }
     }
 
     /**
-     * Implements Dijkstra's shortest path algorithm between two nodes.
-     *
-     * @param start The starting node
-     * @param goal  The destination node
-     * @return List of nodes representing the shortest path
+     * Toggles frontier based selection of exploration targets.
+     * With it turned off tanks pick unvisited nodes and random RRT samples, which allows comparing
+     * the time it takes to explore 95% of the map.
      */
-    ArrayList<Node> dijkstra(Node start, Node goal) {
-        Set<Node> visitedNodes = new HashSet<>();
-
-        PriorityQueue<Node> openSet = new PriorityQueue<>((a, b) ->
-                Float.compare(a.fScore, b.fScore));
-
-        for (Node node : nodes) {
-            node.gScore = Float.MAX_VALUE;
-        }
-
-        start.gScore = 0f;
-
-        HashMap<Node, Node> traveledFrom = new HashMap<>();
-
-        openSet.add(start);
-
-        while (!openSet.isEmpty()) {
-            Node current = openSet.poll();
-
-            if (current.equals(goal)) {
-                return reconstructPath(traveledFrom, current);
-            }
-
-            visitedNodes.add(current);
-
-            for (Edge edge : current.edges) {
-                if (!edge.traversable) continue;
-
-                Node neighbor = edge.destination;
-                if (visitedNodes.contains(neighbor)) continue;
-
-                float currentGScore = current.gScore + edge.weight;
-
-                if (currentGScore < neighbor.gScore) {
-                    traveledFrom.put(neighbor, current);
+    void toggleFrontierMode() {
+        frontierMode = !frontierMode;
+        parent.println("Frontier exploration " + (frontierMode ? "enabled" : "disabled"));
+    }
 
-                    neighbor.gScore = current.gScore;
+    /**
+     * Toggles between planning on the worker threads and resumable searches on the draw thread
+     * within the per-frame planning budget. Searches that are already running finish where they started.
+     */
+    void toggleAsyncPlanning() {
+        asyncPlanning = !asyncPlanning;
+        parent.println("Path planning " + (asyncPlanning ? "on worker threads" : "budgeted on the draw thread"));
+    }
 
-                    if (!openSet.contains(neighbor)) {
-                        openSet.add(neighbor);
-                    }
-                }
-            }
+    /**
+     * Toggles flow field navigation for coordinated group moves.
+     */
+    void toggleFlowFieldMode() {
+        flowFieldMode = !flowFieldMode;
+        if (!flowFieldMode) {
+            flowFields.clear();
         }
-        return new ArrayList<>();
-
+        parent.println("Flow field mode " + (flowFieldMode ? "enabled" : "disabled"));
     }
 
     /**
-     * Implements A* pathfinding algorithm between two nodes.
+     * Sends every tank straight at its goal node using shared flow fields.
+     * Goals that are close together form one region, and one field is built per region.
      *
-     * @param start The starting node
-     * @param goal  The destination node
-     * @return List of nodes representing the optimal path
+     * @param goals The goal node of each tank
      */
-    ArrayList<Node> aStar(Node start, Node goal) {
-
-        Set<Node> visitedNodes = new HashSet<>();
-
-        PriorityQueue<Node> openSet = new PriorityQueue<>((a, b) ->
-                Float.compare(a.fScore, b.fScore));
+    void assignFlowFields(HashMap<Tank, Node> goals) {
+        ArrayList<ArrayList<Tank>> regionTanks = new ArrayList<>();
+        List<List<PVector>> regionGoals = new ArrayList<>();
 
-        for (Node node : nodes) {
-            node.gScore = Float.MAX_VALUE;
-            node.fScore = Float.MAX_VALUE;
-        }
-
-        start.gScore = 0f;
-        start.fScore = heuristicCost(start, goal);
-
-        HashMap<Node, Node> traveledFrom = new HashMap<>();
-
-        openSet.add(start);
-
-        while (!openSet.isEmpty()) {
-            Node current = openSet.poll();
+        for (Tank tank : tanks) {
+            Node goal = goals.get(tank);
+            if (goal == null) continue;
 
-            if (current.equals(goal)) {
-                return reconstructPath(traveledFrom, current);
+            int region = -1;
+            for (int i = 0; i < regionGoals.size(); i++) {
+                if (PVector.dist(regionGoals.get(i).get(0), goal.position) < flowFieldRegionRadius) {
+                    region = i;
+                    break;
+                }
             }
+            if (region == -1) {
+                regionTanks.add(new ArrayList<Tank>());
+                regionGoals.add(new ArrayList<PVector>());
+                region = regionGoals.size() - 1;
+            }
+            regionTanks.get(region).add(tank);
+            regionGoals.get(region).add(goal.position.copy());
+        }
 
-            visitedNodes.add(current);
-
-            for (Edge edge : current.edges) {
-                if (!edge.traversable) continue;
-
-                Node neighbor = edge.destination;
-                if (visitedNodes.contains(neighbor)) continue;
-
-                float currentGScore = current.gScore + edge.weight;
-
-                if (currentGScore < neighbor.gScore) {
-                    traveledFrom.put(neighbor, current);
-
-                    neighbor.gScore = current.gScore;
-                    neighbor.fScore = neighbor.gScore + heuristicCost(neighbor, goal);
+        Tree[] trees = ((tanks_bas_v1_0) parent).allTrees;
+        List<FlowField> fields = FlowField.buildAll(parent.width, parent.height, flowFieldCellSize, regionGoals, trees, 25);
 
-                    if (!openSet.contains(neighbor)) {
-                        openSet.add(neighbor);
-                    }
-                }
+        for (int i = 0; i < fields.size(); i++) {
+            for (Tank tank : regionTanks.get(i)) {
+                Node goal = goals.get(tank);
+                paths.put(tank, new WaypointPath(new Node[]{goal}));
+                targetNodes.put(tank, goal);
+                flowFields.put(tank, fields.get(i));
             }
         }
-        return new ArrayList<>();
     }
 
     /**
-     * Reconstructs the path from A* or Dijkstra search results.
+     * Finds the path from a node to a base node.
+     * Uses a contraction hierarchy query when one is ready, otherwise the path is read from the
+     * shared shortest path tree of that base, which is built once, repaired after every edge change
+     * and shared by all tanks with the same base.
      *
-     * @param traveledFrom Map of nodes to their predecessors
-     * @param current      The destination node to trace back from
-     * @return List of nodes representing the complete path
+     * @param start    The node to start from
+     * @param baseNode The base node to return to
+     * @return List of nodes from start to the base node, or an empty list if unreachable
      */
-    private ArrayList<Node> reconstructPath(HashMap<Node, Node> traveledFrom, Node current) {
-        ArrayList<Node> path = new ArrayList<>();
-
-        path.add(current);
-
-        while (traveledFrom.containsKey(current)) {
-            current = traveledFrom.get(current);
-            path.add(0, current);
+    ArrayList<Node> pathHome(Node start, Node baseNode) {
+        if (hasHierarchy()) {
+            return hierarchy.findPath(start, baseNode, forwardSearch, backwardSearch);
         }
-        return path;
+        return getPathTree(baseNode).pathToRoot(start);
     }
 
     /**
-     * Calculates heuristic cost estimate between two nodes for A* algorithm.
+     * Gets the cached shortest path tree rooted at a node, building it the first time it is needed.
+     * While a contraction hierarchy is ready the tree is swept out of the hierarchy, otherwise it is
+     * built with Dijkstra and notifyEdgeChanged keeps it in step with the graph.
      *
-     * @param a First node
-     * @param b Second node
-     * @return Estimated cost between the nodes
+     * @param root The root of the tree, usually a base node or an attack position
+     * @return Shortest path tree for the current graph
      */
-    private Float heuristicCost(Node a, Node b) {
-        return PVector.dist(a.position, b.position);
+    ShortestPathTree getPathTree(Node root) {
+        if (hasHierarchy()) {
+            return hierarchyTrees.computeIfAbsent(root, hierarchy::pathTree);
+        }
+        ShortestPathTree tree = pathTrees.get(root);
+        if (tree == null) {
+            tree = new ShortestPathTree(root);
+            pathTrees.put(root, tree);
+        }
+        return tree;
     }
 
     /**
@@ -1320,8 +1737,106 @@ class ExplorationManager {
             Node attackNode = addNode(newPos.x, newPos.y);
             enemyBaseNodes.put(tank, attackNode);
             System.out.println("Start coordinated attack at position: " + attackNode.position);
-            attackEnemyBase(tank);
+            navStates.put(tank, NavigationState.POSITION_AROUND_ENEMY_BASE);
+        }
+
+        if (flowFieldMode) {
+            assignFlowFields(enemyBaseNodes);
+        } else {
+            planCoordinatedApproach();
+        }
+    }
+
+    /**
+     * Plans the paths of all tanks to their attack positions together with a reservation table,
+     * so tanks wait for each other at nodes instead of colliding on the way.
+     * Tanks with the longest way are planned first since they decide when the squad is in place.
+     */
+    void planCoordinatedApproach() {
+        for (Tank tank : tanks) {
+            Node closestNode = findClosestNode(tank.position);
+            if (closestNode == null || PVector.dist(closestNode.position, tank.position) > minNodeDistance) {
+                closestNode = addNode(tank.position.x, tank.position.y);
+            }
+            currentNodes.put(tank, closestNode);
+        }
+
+        ArrayList<Tank> order = new ArrayList<>();
+        for (Tank tank : tanks) {
+            if (enemyBaseNodes.get(tank) != null) {
+                order.add(tank);
+            }
         }
+        order.sort((a, b) -> Float.compare(distanceToGoal(b), distanceToGoal(a)));
+
+        float stepDistance = tanks.get(0).maxspeed * cooperativeTicksPerStep;
+        CooperativePlanner planner = new CooperativePlanner(stepDistance, cooperativeWindow);
+        int squadArrival = 0;
+
+        for (Tank tank : order) {
+            Node attackNode = enemyBaseNodes.get(tank);
+            CooperativePlanner.Plan plan = planner.planAgent(currentNodes.get(tank), attackNode, getPathTree(attackNode));
+            if (plan == null) {
+                parent.println("No cooperative path for " + tank.name + ", planning alone");
+                attackEnemyBase(tank);
+                continue;
+            }
+
+            // Not smoothed, the schedule refers to every node of the plan
+            paths.put(tank, new WaypointPath(plan.nodes));
+            targetNodes.put(tank, plan.nodes.get(0));
+            schedules.put(tank, plan);
+            scheduleStartTicks.put(tank, tickCount);
+            squadArrival = Math.max(squadArrival, plan.arrivalStep());
+        }
+
+        parent.println("Squad planned to be in position in " + (squadArrival * cooperativeTicksPerStep) + " ticks");
+    }
+
+    /**
+     * Gets the shortest path distance from a tank's current node to its attack position.
+     *
+     * @param tank The tank to measure for
+     * @return Distance along the graph, or infinity if unreachable
+     */
+    private float distanceToGoal(Tank tank) {
+        Float distance = getPathTree(enemyBaseNodes.get(tank)).distance.get(currentNodes.get(tank));
+        return distance == null ? Float.MAX_VALUE : distance;
+    }
+
+    /**
+     * Checks if a tank that reached a node has to wait before leaving it, according to its cooperative plan.
+     *
+     * @param tank The tank to check
+     * @param path The remaining path of the tank, starting with the node it just reached
+     * @return true if the tank should hold its position
+     */
+    boolean isHeldBySchedule(Tank tank, WaypointPath path) {
+        CooperativePlanner.Plan plan = schedules.get(tank);
+        if (plan == null) return false;
+
+        int index = plan.nodes.size() - path.remaining();
+        if (index < 0 || index >= plan.nodes.size()) return false;
+
+        int departure = plan.departureSteps.get(index);
+        if (departure < 0) return false;
+
+        return tickCount < scheduleStartTicks.get(tank) + (long) departure * cooperativeTicksPerStep;
+    }
+
+    /**
+     * Checks if a tank is standing at a node of its cooperative plan and has to wait there before leaving.
+     *
+     * @param tank The tank to check
+     * @return true if the tank is held at its current node by its schedule
+     */
+    boolean isWaitingOnSchedule(Tank tank) {
+        if (navStates.get(tank) != NavigationState.POSITION_AROUND_ENEMY_BASE) return false;
+
+        WaypointPath path = paths.get(tank);
+        if (path == null || !path.isCurrentWithin(tank.position.x, tank.position.y, 20)) return false;
+
+        return isHeldBySchedule(tank, path);
     }
 
     /**
@@ -1345,30 +1860,338 @@ class ExplorationManager {
             return;
         }
 
-        ArrayList<Node> pathingHome;
+        requestPath(tank, closestNode, attackNode);
+    }
 
-        if (testDijkstra)
-            pathingHome = dijkstra(closestNode, attackNode);
-        else
-            pathingHome = aStar(closestNode, attackNode);
+    /**
+     * Starts a path search for a tank with the selected algorithm.
+     * With async planning the search runs on the planning service against a graph snapshot.
+     * Otherwise it runs on the draw thread as a resumable search within the per-frame planning budget.
+     * In both cases the tank keeps following its previous path until the result is picked up.
+     *
+     * @param tank  The tank to plan for
+     * @param start The node to start from
+     * @param goal  The node to plan to
+     */
+    void requestPath(Tank tank, Node start, Node goal) {
+        if (!asyncPlanning) {
+            pendingPaths.remove(tank);
+            pendingGoals.remove(tank);
+            activeSearches.put(tank, new ResumableSearch(getSnapshot(), start, goal, !testDijkstra));
+            return;
+        }
 
-        ArrayList<PVector> path = new ArrayList<>();
-        if (!pathingHome.isEmpty()) {
-            path.clear();
+        activeSearches.remove(tank);
+        pendingGoals.put(tank, goal);
+        if (!testDijkstra && hasHierarchy()) {
+            pendingPaths.put(tank, planningService.requestHierarchy(hierarchy, start, goal));
+        } else if (altMode && !testDijkstra) {
+            pendingPaths.put(tank, planningService.requestBidirectional(getSnapshot(), landmarks, start, goal));
+        } else {
+            pendingPaths.put(tank, planningService.request(getSnapshot(), start, goal, !testDijkstra));
+        }
+    }
 
-            for (Node node : pathingHome) {
-                path.add(node.position.copy());
+    /**
+     * Advances the resumable searches of all tanks within the per-frame planning budget.
+     * Both the node expansions and the time are split evenly between the tanks that are searching,
+     * budget left over by a finished search goes to the next tank, and the tank that starts
+     * rotates every frame so no tank is always last.
+     */
+    void stepSearches() {
+        if (activeSearches.isEmpty()) return;
+
+        ArrayList<Tank> searching = new ArrayList<>();
+        for (int i = 0; i < tanks.size(); i++) {
+            Tank tank = tanks.get((i + searchRoundRobin) % tanks.size());
+            if (activeSearches.containsKey(tank)) {
+                searching.add(tank);
             }
-            paths.put(tank, path);
+        }
+        searchRoundRobin = (searchRoundRobin + 1) % Math.max(1, tanks.size());
 
-            if (pathingHome.size() > 1) {
-                targetNodes.put(tank, pathingHome.get(0));
-            } else {
-                targetNodes.put(tank, attackNode);
+        long deadline = System.nanoTime() + planningBudgetMicros * 1000;
+        int remainingExpansions = planningBudgetExpansions;
+
+        for (int i = 0; i < searching.size(); i++) {
+            long now = System.nanoTime();
+            if (now >= deadline || remainingExpansions <= 0) break;
+
+            int searchesLeft = searching.size() - i;
+            Tank tank = searching.get(i);
+            ResumableSearch search = activeSearches.get(tank);
+
+            int expansionsBefore = search.expansions;
+            boolean done = search.step(remainingExpansions / searchesLeft + 1, now + (deadline - now) / searchesLeft);
+            remainingExpansions -= search.expansions - expansionsBefore;
+
+            if (done) {
+                activeSearches.remove(tank);
+                parent.println(tank.name + " planned a path with " + search.expansions + " expansions over " + search.steps + " frames");
+                applyPath(tank, search.path, search.goalNode);
             }
         }
     }
 
+    /**
+     * Applies a finished background search to its tank, if there is one.
+     * If the search failed, the path is searched again as a resumable search on the draw thread,
+     * so the tank does not keep following its old path.
+     *
+     * @param tank The tank to check for a finished search
+     */
+    void collectPlannedPath(Tank tank) {
+        CompletableFuture<ArrayList<Node>> future = pendingPaths.get(tank);
+        if (future == null || !future.isDone()) return;
+
+        pendingPaths.remove(tank);
+        Node goal = pendingGoals.remove(tank);
+        ArrayList<Node> pathing;
+        try {
+            pathing = future.join();
+        } catch (RuntimeException e) {
+            parent.println("Path planning failed for " + tank.name + ": " + e.getMessage() + ", searching again");
+            Node start = findClosestNode(tank.position);
+            if (goal != null && start != null) {
+                activeSearches.put(tank, new ResumableSearch(getSnapshot(), start, goal, !testDijkstra));
+            }
+            return;
+        }
+        applyPath(tank, pathing, goal);
+    }
+
+    /**
+     * Makes a tank follow a planned path.
+     * The path is shortened by string pulling unless smoothing is turned off.
+     *
+     * @param tank    The tank that follows the path
+     * @param pathing List of nodes from the tank's node to the goal
+     * @param goal    The goal node of the path
+     */
+    void applyPath(Tank tank, ArrayList<Node> pathing, Node goal) {
+        if (pathing.isEmpty()) return;
+
+        WaypointPath path = smoothPaths ? WaypointPath.smoothed(tank.position, pathing, this::canSee) : new WaypointPath(pathing);
+        paths.put(tank, path);
+
+        Node first = path.current();
+        targetNodes.put(tank, first != null ? first : goal);
+    }
+
+    /**
+     * Gets an immutable snapshot of the current navigation graph.
+     * Publishes a new version first if the graph has changed since the last one.
+     *
+     * @return Snapshot of the current graph version
+     */
+    GraphSnapshot getSnapshot() {
+        publishSnapshot();
+        return snapshot;
+    }
+
+    /**
+     * Publishes a new graph snapshot after a batch of mutations.
+     * Readers on other threads see either the old or the new version, never a graph that is being changed.
+     * Called once per frame after exploration has changed the graph, and on demand before a search.
+     */
+    void publishSnapshot() {
+        if (snapshot == null || snapshot.version != graphVersion) {
+            if (snapshot == null || snapshot.topologyVersion != topologyVersion) {
+                lastTopologyChangeTick = tickCount;
+            }
+            snapshot = new GraphSnapshot(snapshot, nodes, changedNodes, graphVersion, topologyVersion);
+            changedNodes.clear();
+        }
+        if (altMode) {
+            refreshLandmarks();
+        }
+        if (hierarchyMode) {
+            refreshHierarchy();
+        }
+    }
+
+    /**
+     * Refines the graph in the background, RRT* style.
+     * A finished pass is applied first, then a new pass over the next batch of nodes is started
+     * on the planning service every refineInterval ticks. Must be called before publishSnapshot
+     * so that a whole patch shows up in one snapshot.
+     */
+    void refineGraph() {
+        if (!refineMode) return;
+
+        if (refinement != null) {
+            if (!refinement.isDone()) return;
+            try {
+                applyRefinement(refinement.join());
+            } catch (RuntimeException e) {
+                parent.println("Graph refinement failed: " + e.getMessage());
+            }
+            refinement = null;
+        }
+
+        if (tickCount % refineInterval != 0 || nodes.size() < 2) return;
+
+        ObstacleIndex index = getObstacles();
+        GraphSnapshot target = getSnapshot();
+        int start = refineStart;
+        refinement = CompletableFuture.supplyAsync(() -> refiner.refine(target, index, start), planningService.workers);
+    }
+
+    /**
+     * Gets the obstacle index of the map, built from the trees the first time it is needed.
+     *
+     * @return The obstacle index
+     */
+    ObstacleIndex getObstacles() {
+        if (obstacles == null) {
+            obstacles = new ObstacleIndex(parent instanceof tanks_bas_v1_0 ? ((tanks_bas_v1_0) parent).allTrees : null);
+        }
+        return obstacles;
+    }
+
+    /**
+     * Applies a refinement patch to the live graph.
+     * The graph may have changed while the pass ran, so every change is checked again:
+     * shortcuts are only added between nodes that are still unconnected, and an edge is only removed
+     * while a detour of almost the same length still exists.
+     *
+     * @param patch The changes found by the refinement pass
+     */
+    void applyRefinement(GraphRefiner.Patch patch) {
+        refineStart = patch.nextStart;
+        if (patch.isEmpty()) return;
+
+        int added = 0;
+        int removed = 0;
+        for (int i = 0; i < patch.added.size(); i++) {
+            Node node1 = nodes.get(patch.added.get(i)[0]);
+            Node node2 = nodes.get(patch.added.get(i)[1]);
+            if (linkEdge(node1, node2) == null) {
+                connectNodes(node1, node2, patch.addedLengths.get(i));
+                added++;
+            }
+        }
+        for (int[] pair : patch.removed) {
+            Node node1 = nodes.get(pair[0]);
+            Node node2 = nodes.get(pair[1]);
+            if (isDominated(node1, node2)) {
+                disconnectNodes(node1, node2);
+                removed++;
+            }
+        }
+
+        if (added > 0 || removed > 0) {
+            parent.println("Graph refined: " + added + " shortcuts added, " + removed + " dominated edges removed");
+        }
+    }
+
+    /**
+     * Checks if the connection between two nodes is barely shorter than a detour over a shared neighbor.
+     *
+     * @param node1 First node of the connection
+     * @param node2 Second node of the connection
+     * @return true if the connection exists and is dominated
+     */
+    boolean isDominated(Node node1, Node node2) {
+        Edge direct = linkEdge(node1, node2);
+        if (direct == null) return false;
+
+        for (Edge first : node1.edges) {
+            if (first.destination == node2) continue;
+            Edge second = linkEdge(first.destination, node2);
+            if (first.traversable && second != null && second.traversable
+                    && first.length + second.length <= direct.length * (1 + refiner.dominanceTolerance)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Keeps the contraction hierarchy in step with the graph.
+     * A new hierarchy is only built after the topology has been the same for hierarchyStableTicks ticks,
+     * since finding the node order is the expensive part. When only edge costs changed, as with congestion,
+     * the hierarchy is customized with its old node order right away. Both run on the planning service.
+     */
+    void refreshHierarchy() {
+        if (hierarchyBuild != null) {
+            if (!hierarchyBuild.isDone()) return;
+            try {
+                ContractionHierarchy built = hierarchyBuild.join();
+                if (!built.customized) {
+                    parent.println("Contraction hierarchy ready for graph version " + built.version);
+                }
+                if (built.topologyVersion == topologyVersion) {
+                    // Queries now go through the hierarchy, so the trees no longer need to be repaired
+                    pathTrees.clear();
+                }
+                hierarchy = built;
+                hierarchyTrees.clear();
+            } catch (RuntimeException e) {
+                parent.println("Contraction hierarchy build failed: " + e.getMessage());
+            }
+            hierarchyBuild = null;
+        }
+
+        if (hierarchy != null && hierarchy.version == graphVersion) return;
+
+        GraphSnapshot target = snapshot;
+        ContractionHierarchy previous = hierarchy;
+        if (hasHierarchy()) {
+            hierarchyBuild = CompletableFuture.supplyAsync(() -> new ContractionHierarchy(target, previous), planningService.workers);
+        } else if (tickCount - lastTopologyChangeTick >= hierarchyStableTicks) {
+            hierarchyBuild = CompletableFuture.supplyAsync(() -> new ContractionHierarchy(target), planningService.workers);
+        }
+    }
+
+    /**
+     * Checks if queries can use the contraction hierarchy.
+     * A hierarchy of the current topology is used even while its customization to new edge costs is
+     * still running: every path it returns exists, only its costs may lag a little behind the congestion.
+     *
+     * @return true if a hierarchy exists for the current topology
+     */
+    boolean hasHierarchy() {
+        return hierarchyMode && hierarchy != null && hierarchy.topologyVersion == topologyVersion;
+    }
+
+    /**
+     * Keeps the landmark table in step with the published snapshot.
+     * A finished refresh is picked up first, then a new one is started on the planning service
+     * if the table is behind. At most one refresh runs at a time, and it repairs the previous
+     * table instead of starting over while the graph only grows.
+     */
+    void refreshLandmarks() {
+        if (landmarkRefresh != null) {
+            if (!landmarkRefresh.isDone()) return;
+            try {
+                landmarks = landmarkRefresh.join();
+                landmarkSnapshot = refreshingSnapshot;
+            } catch (RuntimeException e) {
+                parent.println("Landmark refresh failed: " + e.getMessage());
+            }
+            landmarkRefresh = null;
+            refreshingSnapshot = null;
+        }
+
+        if (landmarks != null && landmarks.version == snapshot.topologyVersion) return;
+
+        LandmarkTable previous = landmarks;
+        GraphSnapshot previousSnapshot = landmarkSnapshot;
+        GraphSnapshot target = snapshot;
+        refreshingSnapshot = target;
+        landmarkRefresh = CompletableFuture.supplyAsync(
+                () -> LandmarkTable.refresh(previous, previousSnapshot, target, landmarkCount), planningService.workers);
+    }
+
+    /**
+     * Stops the background planning, refinement and hierarchy threads.
+     * Called when the sketch exits.
+     */
+    void shutdown() {
+        planningService.shutdown();
+    }
+
     /**
      * Debug method to print current navigation states of all tanks.
      */
@@ -0,0 +1,190 @@
+import processing.core.PVector;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Keeps the navigation nodes in a max-heap ordered by exploration value.
+ * A node's value drops when a tank sees or visits it and grows back linearly with the time since
+ * then, up to a maximum. Since all nodes regrow at the same rate, the heap key
+ * explorationValue - regenerationRate * lastVisitTime does not change while time passes,
+ * and the heap only has to be repaired for the node a tank just observed.
+ */
+class ExplorationScheduler {
+    float maxValue;
+    float regenerationPerMilli;
+    float decayFactor;
+    int maxPops;
+
+    Node[] heap;
+    int size;
+    int[] heapIndex;
+    float[] keys;
+    HashMap<Tank, Node> claims;
+
+    /**
+     * Constructor for the scheduler.
+     * @param maxValue Value of a node that has not been seen for a long time
+     * @param regenerationSeconds Seconds it takes a node to regain the full value after a visit
+     * @param decayFactor Factor a node's value is multiplied with every tick a tank sees it
+     */
+    ExplorationScheduler(float maxValue, float regenerationSeconds, float decayFactor) {
+        this.maxValue = maxValue;
+        this.regenerationPerMilli = maxValue / (regenerationSeconds * 1000);
+        this.decayFactor = decayFactor;
+        this.maxPops = 16;
+        this.heap = new Node[64];
+        this.size = 0;
+        this.heapIndex = new int[64];
+        this.keys = new float[64];
+        Arrays.fill(heapIndex, -1);
+        this.claims = new HashMap<>();
+    }
+
+    /**
+     * Gets the current exploration value of a node.
+     * @param node The node to evaluate
+     * @param now Current time in milliseconds
+     * @return Value between 0 and maxValue
+     */
+    float valueAt(Node node, float now) {
+        return Math.min(maxValue, node.explorationValue + regenerationPerMilli * (now - node.lastVisitTime));
+    }
+
+    /**
+     * Lowers the value of a node a tank can currently see.
+     * @param node The node in view
+     * @param now Current time in milliseconds
+     */
+    void observe(Node node, float now) {
+        node.explorationValue = valueAt(node, now) * decayFactor;
+        node.lastVisitTime = now;
+        update(node);
+    }
+
+    /**
+     * Inserts a node, or moves it to its place in the heap after its value or visit time changed.
+     * A node claimed by a tank only gets its key updated, release puts it back into the heap.
+     * @param node The node to update
+     */
+    void update(Node node) {
+        ensureCapacity(node.id + 1);
+        keys[node.id] = node.explorationValue - regenerationPerMilli * node.lastVisitTime;
+
+        int index = heapIndex[node.id];
+        if (index < 0) {
+            if (claims.containsValue(node)) return;
+            if (size == heap.length) {
+                heap = Arrays.copyOf(heap, size * 2);
+            }
+            heap[size] = node;
+            heapIndex[node.id] = size;
+            siftUp(size++);
+        } else {
+            siftDown(siftUp(index));
+        }
+    }
+
+    /**
+     * Gives a tank the most valuable node within reach and takes it out of the heap,
+     * so no other tank gets the same target. The tank's previous target is put back first.
+     * At most maxPops nodes are looked at, and only a node within the distance that passes the
+     * reachability test is taken.
+     * @param tank The tank asking for a target
+     * @param maxDistance Distance within which a target has to be
+     * @param reachable Test a target has to pass, such as a clear line of sight from the tank
+     * @return The claimed node, or null if none of the looked at nodes qualifies
+     */
+    Node next(Tank tank, float maxDistance, Predicate<Node> reachable) {
+        release(tank);
+
+        ArrayList<Node> popped = new ArrayList<>();
+        Node chosen = null;
+
+        while (size > 0 && popped.size() < maxPops) {
+            Node node = pop();
+            popped.add(node);
+            if (PVector.dist(tank.position, node.position) <= maxDistance && reachable.test(node)) {
+                chosen = node;
+                break;
+            }
+        }
+
+        for (Node node : popped) {
+            if (node != chosen) {
+                update(node);
+            }
+        }
+        if (chosen != null) {
+            claims.put(tank, chosen);
+        }
+        return chosen;
+    }
+
+    /**
+     * Puts the target a tank has claimed back into the heap.
+     * @param tank The tank that gives up its target
+     */
+    void release(Tank tank) {
+        Node claimed = claims.remove(tank);
+        if (claimed != null) {
+            update(claimed);
+        }
+    }
+
+    /**
+     * Removes the node with the highest key.
+     */
+    private Node pop() {
+        Node top = heap[0];
+        heapIndex[top.id] = -1;
+        size--;
+        if (size > 0) {
+            heap[0] = heap[size];
+            heapIndex[heap[0].id] = 0;
+            siftDown(0);
+        }
+        heap[size] = null;
+        return top;
+    }
+
+    private int siftUp(int index) {
+        while (index > 0) {
+            int parentIndex = (index - 1) / 2;
+            if (keys[heap[parentIndex].id] >= keys[heap[index].id]) break;
+            swap(index, parentIndex);
+            index = parentIndex;
+        }
+        return index;
+    }
+
+    private void siftDown(int index) {
+        while (true) {
+            int left = index * 2 + 1;
+            int right = left + 1;
+            int largest = index;
+            if (left < size && keys[heap[left].id] > keys[heap[largest].id]) largest = left;
+            if (right < size && keys[heap[right].id] > keys[heap[largest].id]) largest = right;
+            if (largest == index) return;
+            swap(index, largest);
+            index = largest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        Node temp = heap[a];
+        heap[a] = heap[b];
+        heap[b] = temp;
+        heapIndex[heap[a].id] = a;
+        heapIndex[heap[b].id] = b;
+    }
+
+    private void ensureCapacity(int count) {
+        if (count <= heapIndex.length) return;
+        int oldLength = heapIndex.length;
+        int newLength = Math.max(count, oldLength * 2);
+        heapIndex = Arrays.copyOf(heapIndex, newLength);
+        keys = Arrays.copyOf(keys, newLength);
+        Arrays.fill(heapIndex, oldLength, newLength, -1);
+    }
+}
@@ -0,0 +1,219 @@
+import processing.core.PVector;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Flow field over a uniform grid covering the map.
+ * One integration field is computed per goal region, and every tank heading to that
+ * region follows the field direction of the cell it is in. The planning cost is paid
+ * once per region, no matter how many tanks use the field.
+ */
+class FlowField {
+    float cellSize;
+    int cols;
+    int rows;
+    boolean[] blocked;
+    float[] integration;
+    float[] directionX;
+    float[] directionY;
+    ArrayList<PVector> goals;
+
+    /**
+     * Entry in the integration open set.
+     */
+    static class QueueEntry {
+        int cell;
+        float cost;
+
+        QueueEntry(int cell, float cost) {
+            this.cell = cell;
+            this.cost = cost;
+        }
+    }
+
+    /**
+     * Constructor that builds the integration field and the flow directions.
+     * @param width Width of the map
+     * @param height Height of the map
+     * @param cellSize Side length of a grid cell
+     * @param goals Goal positions of the region, the field leads to the closest of them
+     * @param trees Trees that block cells
+     * @param clearance Extra distance kept from trees, usually the tank radius
+     */
+    FlowField(float width, float height, float cellSize, List<PVector> goals, Tree[] trees, float clearance) {
+        this.cellSize = cellSize;
+        this.cols = (int) Math.ceil(width / cellSize);
+        this.rows = (int) Math.ceil(height / cellSize);
+        this.goals = new ArrayList<>(goals);
+
+        int cellCount = cols * rows;
+        this.blocked = new boolean[cellCount];
+        this.integration = new float[cellCount];
+        this.directionX = new float[cellCount];
+        this.directionY = new float[cellCount];
+
+        markBlockedCells(trees, clearance);
+        integrate();
+        computeDirections();
+    }
+
+    /**
+     * Builds one flow field per goal region in parallel.
+     * @param width Width of the map
+     * @param height Height of the map
+     * @param cellSize Side length of a grid cell
+     * @param regions Goal positions grouped per region
+     * @param trees Trees that block cells
+     * @param clearance Extra distance kept from trees
+     * @return One flow field per region, in the same order as the regions
+     */
+    static List<FlowField> buildAll(float width, float height, float cellSize, List<List<PVector>> regions, Tree[] trees, float clearance) {
+        return regions.parallelStream()
+                .map(region -> new FlowField(width, height, cellSize, region, trees, clearance))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Marks every cell whose center is too close to a tree as blocked.
+     * @param trees Trees to check against
+     * @param clearance Extra distance kept from trees
+     */
+    private void markBlockedCells(Tree[] trees, float clearance) {
+        if (trees == null) return;
+
+        for (Tree tree : trees) {
+            if (tree == null) continue;
+
+            float reach = tree.radius + clearance;
+            int minCol = Math.max(0, (int) ((tree.position.x - reach) / cellSize));
+            int maxCol = Math.min(cols - 1, (int) ((tree.position.x + reach) / cellSize));
+            int minRow = Math.max(0, (int) ((tree.position.y - reach) / cellSize));
+            int maxRow = Math.min(rows - 1, (int) ((tree.position.y + reach) / cellSize));
+
+            for (int row = minRow; row <= maxRow; row++) {
+                for (int col = minCol; col <= maxCol; col++) {
+                    float dx = (col + 0.5f) * cellSize - tree.position.x;
+                    float dy = (row + 0.5f) * cellSize - tree.position.y;
+                    if (dx * dx + dy * dy < reach * reach) {
+                        blocked[row * cols + col] = true;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs Dijkstra outward from all goal cells to get the cost to the region from every cell.
+     */
+    private void integrate() {
+        Arrays.fill(integration, Float.MAX_VALUE);
+        PriorityQueue<QueueEntry> openSet = new PriorityQueue<>((a, b) -> Float.compare(a.cost, b.cost));
+
+        for (PVector goal : goals) {
+            int cell = cellIndex(goal.x, goal.y);
+            integration[cell] = 0;
+            openSet.add(new QueueEntry(cell, 0));
+        }
+
+        while (!openSet.isEmpty()) {
+            QueueEntry entry = openSet.poll();
+            if (entry.cost > integration[entry.cell]) continue;
+
+            int col = entry.cell % cols;
+            int row = entry.cell / cols;
+
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int dx = -1; dx <= 1; dx++) {
+                    if (dx == 0 && dy == 0) continue;
+                    if (!canStep(col, row, dx, dy)) continue;
+
+                    int neighbor = (row + dy) * cols + (col + dx);
+                    float cost = entry.cost + ((dx != 0 && dy != 0) ? 1.4142f : 1.0f);
+                    if (cost < integration[neighbor]) {
+                        integration[neighbor] = cost;
+                        openSet.add(new QueueEntry(neighbor, cost));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Points every cell at its cheapest neighbor.
+     */
+    private void computeDirections() {
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                int cell = row * cols + col;
+                float best = integration[cell];
+                int bestDx = 0;
+                int bestDy = 0;
+
+                for (int dy = -1; dy <= 1; dy++) {
+                    for (int dx = -1; dx <= 1; dx++) {
+                        if (dx == 0 && dy == 0) continue;
+                        if (!canStep(col, row, dx, dy)) continue;
+
+                        int neighbor = (row + dy) * cols + (col + dx);
+                        if (integration[neighbor] < best) {
+                            best = integration[neighbor];
+                            bestDx = dx;
+                            bestDy = dy;
+                        }
+                    }
+                }
+
+                float length = (bestDx != 0 && bestDy != 0) ? 1.4142f : 1.0f;
+                directionX[cell] = bestDx / length;
+                directionY[cell] = bestDy / length;
+            }
+        }
+    }
+
+    /**
+     * Checks if a step from a cell to a neighbor is allowed.
+     * Steps into blocked cells and diagonal steps that cut a blocked corner are not allowed.
+     */
+    private boolean canStep(int col, int row, int dx, int dy) {
+        int newCol = col + dx;
+        int newRow = row + dy;
+        if (newCol < 0 || newCol >= cols || newRow < 0 || newRow >= rows) return false;
+        if (blocked[newRow * cols + newCol]) return false;
+        if (dx != 0 && dy != 0) {
+            return !blocked[row * cols + newCol] && !blocked[newRow * cols + col];
+        }
+        return true;
+    }
+
+    /**
+     * Gets the grid cell index of a position, clamped to the map.
+     */
+    int cellIndex(float x, float y) {
+        int col = Math.max(0, Math.min(cols - 1, (int) (x / cellSize)));
+        int row = Math.max(0, Math.min(rows - 1, (int) (y / cellSize)));
+        return row * cols + col;
+    }
+
+    /**
+     * Gets the flow direction at a position.
+     * @param position The position to look up
+     * @return Normalized direction toward the goal region, or null if the cell has no way forward
+     */
+    PVector directionAt(PVector position) {
+        int cell = cellIndex(position.x, position.y);
+        if (directionX[cell] == 0 && directionY[cell] == 0) {
+            return null;
+        }
+        return new PVector(directionX[cell], directionY[cell]);
+    }
+
+    /**
+     * Checks if a position lies in one of the goal cells of this field.
+     * @param position The position to check
+     * @return true if the field leads to this position
+     */
+    boolean leadsTo(PVector position) {
+        return integration[cellIndex(position.x, position.y)] == 0;
+    }
+}
@@ -0,0 +1,72 @@
+import java.util.Random;
+
+/**
+ * Standalone benchmark that compares the scalar and the SIMD geometry kernel.
+ * Runs segment-against-circles and nearest-point queries over growing array sizes with both kernels,
+ * checks that they agree, and prints the time per query.
+ * Run with: java --add-modules jdk.incubator.vector GeometryBenchmark [queries]
+ * with the compiled src-vector classes on the class path.
+ * Without the module or those classes only the scalar kernel is measured.
+ */
+class GeometryBenchmark {
+    public static void main(String[] args) {
+        int queries = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        GeometryKernel scalar = new ScalarGeometryKernel();
+        GeometryKernel simd = GeometryKernel.create();
+        System.out.println("Kernel in use: " + simd.getClass().getSimpleName());
+
+        for (int count : new int[]{16, 256, 4096, 65536}) {
+            Random random = new Random(count);
+            float[] x = new float[count];
+            float[] y = new float[count];
+            float[] radius = new float[count];
+            for (int i = 0; i < count; i++) {
+                x[i] = random.nextFloat() * 10000;
+                y[i] = random.nextFloat() * 10000;
+                radius[i] = 1 + random.nextFloat() * 4;
+            }
+            float[] query = new float[queries * 4];
+            for (int i = 0; i < query.length; i++) {
+                query[i] = random.nextFloat() * 10000;
+            }
+            int rounds = Math.max(1, queries * 16 / count);
+
+            // Warm up both kernels before timing
+            run(scalar, x, y, radius, count, query, rounds);
+            run(simd, x, y, radius, count, query, rounds);
+
+            long start = System.nanoTime();
+            long scalarResult = run(scalar, x, y, radius, count, query, rounds);
+            long scalarTime = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            long simdResult = run(simd, x, y, radius, count, query, rounds);
+            long simdTime = System.nanoTime() - start;
+
+            System.out.printf("%6d circles: scalar %8.1f ns, %s %8.1f ns per query, speedup %.2fx%s%n",
+                    count, scalarTime / (double) (rounds * 2), simd.getClass().getSimpleName(), simdTime / (double) (rounds * 2),
+                    scalarTime / (double) simdTime, scalarResult == simdResult ? "" : "  RESULTS DIFFER");
+        }
+    }
+
+    /**
+     * Runs alternating segment and nearest queries and folds the answers into a checksum.
+     */
+    static long run(GeometryKernel kernel, float[] x, float[] y, float[] radius, int count, float[] query, int rounds) {
+        long checksum = 0;
+        for (int round = 0; round < rounds; round++) {
+            int q = (round * 4) % query.length;
+            float ax = query[q];
+            float ay = query[q + 1];
+            // Short segments, so most of them pass between the circles and the whole array is tested
+            float bx = ax + (query[q + 2] - 5000) / 100;
+            float by = ay + (query[q + 3] - 5000) / 100;
+
+            if (kernel.segmentClear(ax, ay, bx, by, x, y, radius, count, 0)) {
+                checksum += round;
+            }
+            checksum = checksum * 31 + kernel.nearest(ax, ay, x, y, count);
+        }
+        return checksum;
+    }
+}
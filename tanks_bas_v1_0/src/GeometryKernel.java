@@ -0,0 +1,54 @@
+/**
+ * Batched geometry tests of one query against many circles or points stored as float arrays.
+ * The SIMD implementation on top of jdk.incubator.vector lives in its own source root, src-vector,
+ * so the sources in src compile without the incubator module. It is used when it was compiled and is
+ * on the class path and the JVM runs with --add-modules jdk.incubator.vector, otherwise the scalar
+ * implementation is used.
+ */
+interface GeometryKernel {
+    /**
+     * The best kernel available in this JVM.
+     */
+    GeometryKernel INSTANCE = create();
+
+    /**
+     * Checks if a segment keeps a distance from every circle.
+     * @param ax X-coordinate of the segment start
+     * @param ay Y-coordinate of the segment start
+     * @param bx X-coordinate of the segment end
+     * @param by Y-coordinate of the segment end
+     * @param cx X-coordinates of the circle centers
+     * @param cy Y-coordinates of the circle centers
+     * @param radius Radii of the circles
+     * @param count Number of circles to test
+     * @param clearance Distance kept from the circle edges
+     * @return true if no circle comes closer than its radius plus the clearance
+     */
+    boolean segmentClear(float ax, float ay, float bx, float by, float[] cx, float[] cy, float[] radius, int count, float clearance);
+
+    /**
+     * Finds the point closest to a position.
+     * @param px X-coordinate of the position
+     * @param py Y-coordinate of the position
+     * @param x X-coordinates of the points
+     * @param y Y-coordinates of the points
+     * @param count Number of points to search
+     * @return Index of the closest point, or -1 if count is 0
+     */
+    int nearest(float px, float py, float[] x, float[] y, int count);
+
+    /**
+     * Creates the SIMD kernel if the vector module is present and the kernel is on the class path, otherwise the scalar kernel.
+     * @return The kernel to use
+     */
+    static GeometryKernel create() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                return (GeometryKernel) Class.forName("VectorGeometryKernel").getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                // Fall through to the scalar kernel
+            }
+        }
+        return new ScalarGeometryKernel();
+    }
+}
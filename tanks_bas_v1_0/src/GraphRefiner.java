@@ -0,0 +1,185 @@
+import java.util.*;
+
+/**
+ * RRT*-style refinement of the navigation graph, meant to run on a background thread.
+ * For a batch of nodes it looks at all nodes within the rewiring radius: if the graph path to one
+ * of them is much longer than the straight line and the line is clear, a shortcut edge is proposed.
+ * Edges that are dominated by a two-edge detour of almost the same length are proposed for removal.
+ * The result is a patch against one snapshot that the draw thread applies in one go.
+ */
+class GraphRefiner {
+    float rewireRadius;
+    float shortcutGain;
+    float dominanceTolerance;
+    float clearance;
+    int batchSize;
+
+    /**
+     * Changes proposed by one refinement pass.
+     */
+    static class Patch {
+        int version;
+        int nextStart;
+        ArrayList<int[]> added = new ArrayList<>();
+        ArrayList<Float> addedLengths = new ArrayList<>();
+        ArrayList<int[]> removed = new ArrayList<>();
+
+        /**
+         * Checks if the pass found anything to change.
+         * @return true if there are no changes
+         */
+        boolean isEmpty() {
+            return added.isEmpty() && removed.isEmpty();
+        }
+    }
+
+    /**
+     * Constructor for the refiner.
+     * @param rewireRadius Longest shortcut edge that is considered
+     * @param shortcutGain Relative detour above which a shortcut is added, 0.2 means 20% longer than straight
+     * @param clearance Distance a shortcut keeps from trees
+     * @param batchSize Number of nodes examined per pass
+     */
+    GraphRefiner(float rewireRadius, float shortcutGain, float clearance, int batchSize) {
+        this.rewireRadius = rewireRadius;
+        this.shortcutGain = shortcutGain;
+        this.dominanceTolerance = 0.02f;
+        this.clearance = clearance;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Runs one refinement pass on a snapshot.
+     * @param snapshot The graph snapshot to refine
+     * @param obstacles Obstacles for the line of sight test
+     * @param start Index of the first node of the batch, passes continue round-robin over the graph
+     * @return Patch against the snapshot's topology version
+     */
+    Patch refine(GraphSnapshot snapshot, ObstacleIndex obstacles, int start) {
+        Patch patch = new Patch();
+        patch.version = snapshot.topologyVersion;
+        int count = snapshot.nodes.length;
+        if (count == 0) return patch;
+
+        HashMap<Long, ArrayList<Integer>> buckets = bucketNodes(snapshot);
+        float[] distance = new float[count];
+        Arrays.fill(distance, Float.MAX_VALUE);
+        ArrayList<Integer> touched = new ArrayList<>();
+        HashSet<Long> proposed = new HashSet<>();
+
+        int examined = Math.min(batchSize, count);
+        for (int n = 0; n < examined; n++) {
+            int u = (start + n) % count;
+            boundedDistances(snapshot, u, rewireRadius * (1 + shortcutGain), distance, touched);
+
+            for (int w : nearbyNodes(snapshot, buckets, u)) {
+                if (w <= u) continue;
+                float straight = snapshot.heuristic(u, w);
+                if (straight > rewireRadius || distance[w] <= straight * (1 + shortcutGain)) continue;
+                if (!obstacles.segmentClear(snapshot.x[u], snapshot.y[u], snapshot.x[w], snapshot.y[w], clearance)) continue;
+
+                if (proposed.add(key(u, w))) {
+                    patch.added.add(new int[]{u, w});
+                    patch.addedLengths.add(straight);
+                }
+            }
+
+            findDominatedEdges(snapshot, u, patch);
+
+            for (int node : touched) {
+                distance[node] = Float.MAX_VALUE;
+            }
+            touched.clear();
+        }
+        patch.nextStart = (start + examined) % count;
+        return patch;
+    }
+
+    /**
+     * Proposes removal of edges from u that are barely shorter than going through a shared neighbor.
+     * Only edges to higher indices are checked, so each edge is looked at from one side only.
+     */
+    private void findDominatedEdges(GraphSnapshot snapshot, int u, Patch patch) {
+        int[] neighbors = snapshot.neighbors[u];
+        float[] lengths = snapshot.lengths[u];
+
+        for (int k = 0; k < neighbors.length; k++) {
+            int v = neighbors[k];
+            if (v <= u) continue;
+
+            for (int m = 0; m < neighbors.length; m++) {
+                int w = neighbors[m];
+                if (w == v) continue;
+                float detour = lengths[m] + lengthBetween(snapshot, w, v);
+                if (detour <= lengths[k] * (1 + dominanceTolerance)) {
+                    patch.removed.add(new int[]{u, v});
+                    break;
+                }
+            }
+        }
+    }
+
+    private float lengthBetween(GraphSnapshot snapshot, int a, int b) {
+        int[] neighbors = snapshot.neighbors[a];
+        for (int k = 0; k < neighbors.length; k++) {
+            if (neighbors[k] == b) return snapshot.lengths[a][k];
+        }
+        return Float.MAX_VALUE;
+    }
+
+    /**
+     * Dijkstra over edge lengths from one node, stopped at a maximum distance.
+     */
+    private void boundedDistances(GraphSnapshot snapshot, int source, float limit, float[] distance, ArrayList<Integer> touched) {
+        PriorityQueue<GraphSnapshot.QueueEntry> openSet = new PriorityQueue<>((a, b) -> Float.compare(a.f, b.f));
+        distance[source] = 0;
+        touched.add(source);
+        openSet.add(new GraphSnapshot.QueueEntry(source, 0));
+
+        while (!openSet.isEmpty()) {
+            GraphSnapshot.QueueEntry entry = openSet.poll();
+            if (entry.f > distance[entry.node]) continue;
+
+            int[] neighbors = snapshot.neighbors[entry.node];
+            for (int k = 0; k < neighbors.length; k++) {
+                float newDistance = entry.f + snapshot.lengths[entry.node][k];
+                if (newDistance > limit || newDistance >= distance[neighbors[k]]) continue;
+                if (distance[neighbors[k]] == Float.MAX_VALUE) touched.add(neighbors[k]);
+                distance[neighbors[k]] = newDistance;
+                openSet.add(new GraphSnapshot.QueueEntry(neighbors[k], newDistance));
+            }
+        }
+    }
+
+    /**
+     * Sorts the nodes into square buckets of the rewiring radius for the neighbor queries.
+     */
+    private HashMap<Long, ArrayList<Integer>> bucketNodes(GraphSnapshot snapshot) {
+        HashMap<Long, ArrayList<Integer>> buckets = new HashMap<>();
+        for (int i = 0; i < snapshot.nodes.length; i++) {
+            buckets.computeIfAbsent(bucket(snapshot.x[i], snapshot.y[i]), b -> new ArrayList<>()).add(i);
+        }
+        return buckets;
+    }
+
+    private ArrayList<Integer> nearbyNodes(GraphSnapshot snapshot, HashMap<Long, ArrayList<Integer>> buckets, int u) {
+        ArrayList<Integer> nearby = new ArrayList<>();
+        int col = (int) Math.floor(snapshot.x[u] / rewireRadius);
+        int row = (int) Math.floor(snapshot.y[u] / rewireRadius);
+        for (int dy = -1; dy <= 1; dy++) {
+            for (int dx = -1; dx <= 1; dx++) {
+                ArrayList<Integer> bucket = buckets.get(key(col + dx, row + dy));
+                if (bucket != null) nearby.addAll(bucket);
+            }
+        }
+        return nearby;
+    }
+
+    private long bucket(float x, float y) {
+        return key((int) Math.floor(x / rewireRadius), (int) Math.floor(y / rewireRadius));
+    }
+
+    private static long key(int a, int b) {
+        return ((long) a << 32) | (b & 0xffffffffL);
+    }
+}
@@ -0,0 +1,151 @@
+import java.util.*;
+
+/**
+ * Immutable copy of the navigation graph at one graph version.
+ * Node positions and edge costs are stored in arrays indexed by Node.id, so searches on a snapshot
+ * do not touch the mutable Node fields and can run on any thread without locks.
+ * Snapshots are copy-on-write: a new version shares the adjacency rows of every node that did not change.
+ * Each row holds both the live edge costs and the plain edge lengths, which never exceed the costs.
+ */
+class GraphSnapshot {
+    final int version;
+    final int topologyVersion;
+    final Node[] nodes;
+    final float[] x;
+    final float[] y;
+    final int[][] neighbors;
+    final float[][] weights;
+    final float[][] lengths;
+
+    /**
+     * Entry in the search open set.
+     */
+    static class QueueEntry {
+        int node;
+        float f;
+
+        QueueEntry(int node, float f) {
+            this.node = node;
+            this.f = f;
+        }
+    }
+
+    /**
+     * Constructor that derives a new version from the previous snapshot.
+     * Only the adjacency rows of changed and new nodes are rebuilt, all other rows are shared.
+     * Must be called from the thread that changes the graph.
+     * @param previous The previous snapshot, or null to copy everything
+     * @param graphNodes All nodes of the navigation graph, in id order
+     * @param changedNodes Nodes whose edges changed since the previous snapshot, ignored without a previous snapshot
+     * @param version The graph version being copied
+     * @param topologyVersion Version that only changes when nodes or edges are added or blocked, not when costs change
+     */
+    GraphSnapshot(GraphSnapshot previous, List<Node> graphNodes, Set<Node> changedNodes, int version, int topologyVersion) {
+        this.version = version;
+        this.topologyVersion = topologyVersion;
+        int count = graphNodes.size();
+        int reused = previous == null ? 0 : previous.nodes.length;
+
+        if (previous == null) {
+            this.nodes = new Node[count];
+            this.x = new float[count];
+            this.y = new float[count];
+            this.neighbors = new int[count][];
+            this.weights = new float[count][];
+            this.lengths = new float[count][];
+        } else {
+            this.nodes = Arrays.copyOf(previous.nodes, count);
+            this.x = Arrays.copyOf(previous.x, count);
+            this.y = Arrays.copyOf(previous.y, count);
+            this.neighbors = Arrays.copyOf(previous.neighbors, count);
+            this.weights = Arrays.copyOf(previous.weights, count);
+            this.lengths = Arrays.copyOf(previous.lengths, count);
+        }
+
+        for (int i = reused; i < count; i++) {
+            nodes[i] = graphNodes.get(i);
+            x[i] = nodes[i].position.x;
+            y[i] = nodes[i].position.y;
+        }
+        for (int i = reused; i < count; i++) {
+            copyRow(i);
+        }
+        if (previous != null) {
+            for (Node node : changedNodes) {
+                if (node.id < reused) {
+                    copyRow(node.id);
+                }
+            }
+        }
+    }
+
+    /**
+     * Copies the traversable edges of one node into its adjacency row.
+     */
+    private void copyRow(int i) {
+        ArrayList<Edge> nodeEdges = nodes[i].edges;
+        int traversable = 0;
+        for (Edge edge : nodeEdges) {
+            if (edge.traversable && indexOf(edge.destination) >= 0) traversable++;
+        }
+
+        neighbors[i] = new int[traversable];
+        weights[i] = new float[traversable];
+        lengths[i] = new float[traversable];
+        int k = 0;
+        for (Edge edge : nodeEdges) {
+            if (!edge.traversable) continue;
+            int destination = indexOf(edge.destination);
+            if (destination < 0) continue;
+            neighbors[i][k] = destination;
+            weights[i][k] = edge.weight;
+            lengths[i][k] = edge.length;
+            k++;
+        }
+    }
+
+    /**
+     * Gets the array index of a node in this snapshot.
+     * @param node The node to look up
+     * @return The index, or -1 if the node was added after the snapshot was taken
+     */
+    int indexOf(Node node) {
+        if (node == null || node.id < 0 || node.id >= nodes.length || nodes[node.id] != node) {
+            return -1;
+        }
+        return node.id;
+    }
+
+    /**
+     * Finds the shortest path between two nodes with A*, or with Dijkstra if no heuristic is used.
+     * @param start The starting node
+     * @param goal The destination node
+     * @param useHeuristic true for A*, false for Dijkstra
+     * @return List of nodes from start to goal, or an empty list if no path exists
+     */
+    ArrayList<Node> findPath(Node start, Node goal, boolean useHeuristic) {
+        return new ResumableSearch(this, start, goal, useHeuristic).run();
+    }
+
+    /**
+     * Follows the predecessor array back from the goal.
+     */
+    ArrayList<Node> reconstructPath(int[] traveledFrom, int current) {
+        ArrayList<Node> path = new ArrayList<>();
+        while (current != -1) {
+            path.add(nodes[current]);
+            current = traveledFrom[current];
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    /**
+     * Straight line distance between two nodes of the snapshot.
+     */
+    float heuristic(int a, int b) {
+        float dx = x[a] - x[b];
+        float dy = y[a] - y[b];
+        return (float) Math.sqrt(dx * dx + dy * dy);
+    }
+}
@@ -0,0 +1,81 @@
+import java.util.Arrays;
+
+/**
+ * Uniform grid over the map that buckets projectiles for hit detection.
+ * The grid is rebuilt every tick with a counting sort, so the projectiles of one cell lie next to
+ * each other in a single array and no lists are allocated. An entity only has to test the
+ * projectiles in the cells its hit circle overlaps.
+ */
+class HitGrid {
+    float cellSize;
+    int cols;
+    int rows;
+    int[] cellStart;
+    int[] items;
+    int[] itemCell;
+    int count;
+
+    /**
+     * Constructor for an empty grid covering the map.
+     * @param width Width of the map
+     * @param height Height of the map
+     * @param cellSize Side length of a cell, about the largest hit distance works best
+     * @param capacity Maximum number of items inserted per build
+     */
+    HitGrid(float width, float height, float cellSize, int capacity) {
+        this.cellSize = cellSize;
+        this.cols = Math.max(1, (int) Math.ceil(width / cellSize));
+        this.rows = Math.max(1, (int) Math.ceil(height / cellSize));
+        this.cellStart = new int[cols * rows + 1];
+        this.items = new int[capacity];
+        this.itemCell = new int[capacity];
+    }
+
+    /**
+     * Rebuilds the grid from a set of points.
+     * @param x X coordinates indexed by item id
+     * @param y Y coordinates indexed by item id
+     * @param ids Ids of the items to insert
+     * @param idCount Number of ids to insert
+     */
+    void build(float[] x, float[] y, int[] ids, int idCount) {
+        count = idCount;
+        Arrays.fill(cellStart, 0);
+
+        for (int i = 0; i < idCount; i++) {
+            int id = ids[i];
+            int cell = row(y[id]) * cols + col(x[id]);
+            itemCell[i] = cell;
+            cellStart[cell + 1]++;
+        }
+        for (int c = 0; c < cols * rows; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+        for (int i = 0; i < idCount; i++) {
+            items[cellStart[itemCell[i]]++] = ids[i];
+        }
+        // The placement loop moved every start to the next cell, shift them back
+        for (int c = cols * rows; c > 0; c--) {
+            cellStart[c] = cellStart[c - 1];
+        }
+        cellStart[0] = 0;
+    }
+
+    /**
+     * Gets the grid column of an x coordinate, clamped to the map.
+     * @param x The x coordinate
+     * @return Column index
+     */
+    int col(float x) {
+        return Math.max(0, Math.min(cols - 1, (int) (x / cellSize)));
+    }
+
+    /**
+     * Gets the grid row of a y coordinate, clamped to the map.
+     * @param y The y coordinate
+     * @return Row index
+     */
+    int row(float y) {
+        return Math.max(0, Math.min(rows - 1, (int) (y / cellSize)));
+    }
+}
@@ -0,0 +1,130 @@
+import processing.core.*;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Random;
+
+/**
+ * Standalone benchmark for projectile hit detection.
+ * Fills the projectile pool with randomly placed shells and compares the grid based
+ * ProjectilePool.checkCollisions with the old test of every projectile against every tank and tree.
+ * Both run on the same positions, and the number of hits has to match.
+ * Run with: java HitGridBenchmark [projectiles] [tanks] [rounds]
+ */
+class HitGridBenchmark {
+    public static void main(String[] args) {
+        int projectileCount = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        int tankCount = args.length > 1 ? Integer.parseInt(args[1]) : 300;
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 50;
+        int treeCount = 40;
+
+        PApplet parent = new PApplet();
+        parent.width = 4000;
+        parent.height = 4000;
+
+        Random random = new Random(1);
+        Tank[] tanks = new Tank[tankCount];
+        Tree[] trees = new Tree[treeCount];
+
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        ParticleSystem particles = new ParticleSystem(parent, 15 * projectileCount);
+        ProjectilePool pool = new ProjectilePool(parent, particles, projectileCount);
+        for (int i = 0; i < tankCount; i++) {
+            tanks[i] = new Tank(parent, "tank" + i, new PVector(random.nextFloat() * parent.width, random.nextFloat() * parent.height), 50, i % 2);
+            tanks[i].setProjectilePool(pool);
+        }
+        PImage treeImage = new PImage(100, 100);
+        for (int i = 0; i < treeCount; i++) {
+            trees[i] = new Tree(parent, treeImage, random.nextFloat() * parent.width, random.nextFloat() * parent.height);
+        }
+
+        long gridTime = 0;
+        long bruteForceTime = 0;
+        long gridHits = 0;
+        long bruteForceHits = 0;
+
+        for (int round = 0; round < rounds; round++) {
+            long seed = random.nextLong();
+
+            fill(pool, tankCount, new Random(seed));
+            resetTanks(tanks);
+            long start = System.nanoTime();
+            bruteForceHits += bruteForce(pool, tanks, trees);
+            bruteForceTime += System.nanoTime() - start;
+
+            fill(pool, tankCount, new Random(seed));
+            resetTanks(tanks);
+            start = System.nanoTime();
+            int before = pool.activeCount;
+            pool.checkCollisions(tanks, trees, 1);
+            gridHits += before - pool.activeCount;
+            gridTime += System.nanoTime() - start;
+
+            particles.count = 0;
+        }
+
+        System.setOut(out);
+        System.out.println(projectileCount + " projectiles, " + tankCount + " tanks, " + treeCount + " trees, " + rounds + " rounds");
+        System.out.printf("brute force: %.3f ms per tick, %d hits%n", bruteForceTime / 1e6 / rounds, bruteForceHits);
+        System.out.printf("grid:        %.3f ms per tick, %d hits%n", gridTime / 1e6 / rounds, gridHits);
+    }
+
+    /**
+     * Empties the pool and fires it full of shells at random positions.
+     */
+    static void fill(ProjectilePool pool, int owners, Random random) {
+        while (pool.activeCount > 0) {
+            pool.explode(pool.activeCount - 1);
+        }
+        for (int i = 0; i < pool.capacity; i++) {
+            float angle = random.nextFloat() * PApplet.TWO_PI;
+            pool.fire(random.nextInt(owners), random.nextFloat() * pool.parent.width, random.nextFloat() * pool.parent.height,
+                    (float) Math.cos(angle), (float) Math.sin(angle));
+        }
+    }
+
+    /**
+     * Gives all tanks back their health so both methods see the same targets.
+     */
+    static void resetTanks(Tank[] tanks) {
+        for (Tank tank : tanks) {
+            tank.health = Integer.MAX_VALUE;
+            tank.isDestroyed = false;
+        }
+    }
+
+    /**
+     * Tests every flying projectile against every tank and tree, like the game did before the grid.
+     * @return Number of projectiles that hit something
+     */
+    static int bruteForce(ProjectilePool pool, Tank[] tanks, Tree[] trees) {
+        int hits = 0;
+        for (int i = 0; i < pool.activeCount; i++) {
+            int slot = pool.active[i];
+            Tank shooter = pool.owners[pool.owner[slot]];
+            boolean hit = false;
+
+            for (Tank tank : tanks) {
+                if (tank == shooter || tank.isDestroyed) continue;
+                if (PVector.dist(new PVector(pool.x[slot], pool.y[slot]), tank.position) < pool.radius + tank.diameter / 2) {
+                    tank.handleHit();
+                    shooter.registerHit();
+                    hit = true;
+                    break;
+                }
+            }
+            if (!hit) {
+                for (Tree tree : trees) {
+                    if (PVector.dist(new PVector(pool.x[slot], pool.y[slot]), tree.position) < pool.radius + tree.radius) {
+                        hit = true;
+                        break;
+                    }
+                }
+            }
+            if (hit) hits++;
+        }
+        return hits;
+    }
+}
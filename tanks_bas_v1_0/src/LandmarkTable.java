@@ -0,0 +1,195 @@
+import java.util.*;
+
+/**
+ * Precomputed shortest path distances from a few landmark nodes (ALT heuristic).
+ * By the triangle inequality |d(L, t) - d(L, v)| is a lower bound of d(v, t) for every landmark L,
+ * which is much tighter than the straight line distance around obstacles.
+ * Distances are measured over edge lengths, which live edge costs never go below, so a table stays
+ * admissible while costs change and is valid for one topology version of the graph.
+ */
+class LandmarkTable {
+    final int version;
+    final int[] landmarks;
+    final float[][] distances;
+    final int selectedAtNodeCount;
+
+    private LandmarkTable(int version, int[] landmarks, float[][] distances, int selectedAtNodeCount) {
+        this.version = version;
+        this.landmarks = landmarks;
+        this.distances = distances;
+        this.selectedAtNodeCount = selectedAtNodeCount;
+    }
+
+    /**
+     * Builds the table for a newer snapshot.
+     * If the graph only grew (new nodes, new edges or cheaper edges) the previous distances are
+     * repaired incrementally from the changed nodes. Otherwise, or once the graph has grown by half
+     * since the landmarks were picked, new landmarks are selected and all distances are recomputed.
+     * @param previous The table of an older snapshot, or null
+     * @param previousSnapshot The snapshot the previous table was built for, or null
+     * @param snapshot The snapshot to build the table for
+     * @param landmarkCount Number of landmarks to select
+     * @return Table valid for the given snapshot
+     */
+    static LandmarkTable refresh(LandmarkTable previous, GraphSnapshot previousSnapshot, GraphSnapshot snapshot, int landmarkCount) {
+        int count = snapshot.nodes.length;
+        boolean canRepair = previous != null && previousSnapshot != null
+                && previousSnapshot.topologyVersion == previous.version
+                && count < previous.selectedAtNodeCount * 1.5f
+                && onlyGrew(previousSnapshot, snapshot);
+
+        if (!canRepair) {
+            return build(snapshot, landmarkCount);
+        }
+
+        float[][] distances = new float[previous.landmarks.length][];
+        for (int l = 0; l < previous.landmarks.length; l++) {
+            distances[l] = Arrays.copyOf(previous.distances[l], count);
+            Arrays.fill(distances[l], previousSnapshot.nodes.length, count, Float.MAX_VALUE);
+            repair(snapshot, previousSnapshot, distances[l]);
+        }
+        return new LandmarkTable(snapshot.topologyVersion, previous.landmarks, distances, previous.selectedAtNodeCount);
+    }
+
+    /**
+     * Selects landmarks by farthest point sampling and computes all distances from scratch.
+     * @param snapshot The snapshot to build the table for
+     * @param landmarkCount Number of landmarks to select
+     * @return Table valid for the given snapshot
+     */
+    static LandmarkTable build(GraphSnapshot snapshot, int landmarkCount) {
+        int count = snapshot.nodes.length;
+        if (count == 0) {
+            return new LandmarkTable(snapshot.topologyVersion, new int[0], new float[0][], 0);
+        }
+
+        ArrayList<float[]> tables = new ArrayList<>();
+        ArrayList<Integer> selected = new ArrayList<>();
+
+        // The first landmark is the node farthest from node 0, the next ones are farthest from all selected
+        float[] minDistance = shortestDistances(snapshot, 0);
+        for (int l = 0; l < landmarkCount && l < count; l++) {
+            int farthest = -1;
+            float farthestDistance = -1;
+            for (int i = 0; i < count; i++) {
+                if (minDistance[i] != Float.MAX_VALUE && minDistance[i] > farthestDistance) {
+                    farthestDistance = minDistance[i];
+                    farthest = i;
+                }
+            }
+            if (farthest < 0 || (l > 0 && farthestDistance == 0)) break;
+
+            float[] distances = shortestDistances(snapshot, farthest);
+            selected.add(farthest);
+            tables.add(distances);
+            for (int i = 0; i < count; i++) {
+                minDistance[i] = l == 0 ? distances[i] : Math.min(minDistance[i], distances[i]);
+            }
+        }
+
+        int[] landmarks = new int[selected.size()];
+        for (int l = 0; l < landmarks.length; l++) {
+            landmarks[l] = selected.get(l);
+        }
+        return new LandmarkTable(snapshot.topologyVersion, landmarks, tables.toArray(new float[0][]), count);
+    }
+
+    /**
+     * Lower bound of the shortest path distance between two nodes.
+     * @param a Index of the first node
+     * @param b Index of the second node
+     * @return The best landmark bound, or 0 if no landmark reaches both nodes
+     */
+    float lowerBound(int a, int b) {
+        float best = 0;
+        for (float[] distance : distances) {
+            if (a >= distance.length || b >= distance.length) continue;
+            float da = distance[a];
+            float db = distance[b];
+            if (da == Float.MAX_VALUE || db == Float.MAX_VALUE) continue;
+            float bound = Math.abs(da - db);
+            if (bound > best) best = bound;
+        }
+        return best;
+    }
+
+    /**
+     * Runs Dijkstra from one node of a snapshot.
+     */
+    static float[] shortestDistances(GraphSnapshot snapshot, int source) {
+        float[] distance = new float[snapshot.nodes.length];
+        Arrays.fill(distance, Float.MAX_VALUE);
+        distance[source] = 0;
+
+        PriorityQueue<GraphSnapshot.QueueEntry> openSet = new PriorityQueue<>((a, b) -> Float.compare(a.f, b.f));
+        openSet.add(new GraphSnapshot.QueueEntry(source, 0));
+        propagate(snapshot, distance, openSet);
+        return distance;
+    }
+
+    /**
+     * Lowers distances after the graph grew, starting from the nodes whose adjacency changed.
+     */
+    private static void repair(GraphSnapshot snapshot, GraphSnapshot previousSnapshot, float[] distance) {
+        PriorityQueue<GraphSnapshot.QueueEntry> openSet = new PriorityQueue<>((a, b) -> Float.compare(a.f, b.f));
+
+        for (int i = 0; i < snapshot.nodes.length; i++) {
+            boolean changed = i >= previousSnapshot.nodes.length || snapshot.neighbors[i] != previousSnapshot.neighbors[i];
+            if (!changed) continue;
+
+            // A changed node can get a shorter distance through one of its new edges
+            for (int k = 0; k < snapshot.neighbors[i].length; k++) {
+                int neighbor = snapshot.neighbors[i][k];
+                if (distance[neighbor] != Float.MAX_VALUE && distance[neighbor] + snapshot.lengths[i][k] < distance[i]) {
+                    distance[i] = distance[neighbor] + snapshot.lengths[i][k];
+                }
+            }
+            if (distance[i] != Float.MAX_VALUE) {
+                openSet.add(new GraphSnapshot.QueueEntry(i, distance[i]));
+            }
+        }
+        propagate(snapshot, distance, openSet);
+    }
+
+    /**
+     * Dijkstra relaxation loop shared by the full build and the incremental repair.
+     */
+    private static void propagate(GraphSnapshot snapshot, float[] distance, PriorityQueue<GraphSnapshot.QueueEntry> openSet) {
+        while (!openSet.isEmpty()) {
+            GraphSnapshot.QueueEntry entry = openSet.poll();
+            int current = entry.node;
+            if (entry.f > distance[current]) continue;
+
+            for (int k = 0; k < snapshot.neighbors[current].length; k++) {
+                int neighbor = snapshot.neighbors[current][k];
+                float newDistance = distance[current] + snapshot.lengths[current][k];
+                if (newDistance < distance[neighbor]) {
+                    distance[neighbor] = newDistance;
+                    openSet.add(new GraphSnapshot.QueueEntry(neighbor, newDistance));
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks that no edge of the older snapshot was removed or became more expensive,
+     * which is what the incremental repair relies on.
+     */
+    private static boolean onlyGrew(GraphSnapshot older, GraphSnapshot newer) {
+        for (int i = 0; i < older.nodes.length; i++) {
+            if (older.neighbors[i] == newer.neighbors[i]) continue;
+
+            for (int k = 0; k < older.neighbors[i].length; k++) {
+                boolean found = false;
+                for (int m = 0; m < newer.neighbors[i].length; m++) {
+                    if (newer.neighbors[i][m] == older.neighbors[i][k] && newer.lengths[i][m] <= older.lengths[i][k]) {
+                        found = true;
+                        break;
+                    }
+                }
+                if (!found) return false;
+            }
+        }
+        return true;
+    }
+}
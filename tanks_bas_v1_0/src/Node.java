@@ -12,15 +12,12 @@ class Node {
     PApplet parent;
     PVector position;
     ArrayList<Edge> edges;
+    int id;
     boolean visited;
     int visitCount;
 
     float explorationValue;
     float lastVisitTime;
-
-    //A*
-    float fScore;
-    float gScore;
     /**
      * Constructor for creating a navigation node.
      * @param parent Reference to the Processing applet
@@ -31,13 +28,11 @@ class Node {
         this.parent = parent;
         position = new PVector(x, y);
         edges = new ArrayList<>();
+        id = -1;
         visited = false;
         visitCount = 0;
         explorationValue = 100.0f; // Start with high exploration value
         lastVisitTime = parent.millis();
-
-        fScore = Float.MAX_VALUE;
-        gScore = Float.MAX_VALUE;
     }
     /**
      * Adds a directed edge from this node to another node.
@@ -0,0 +1,103 @@
+/**
+ * Read-only copy of the tree obstacles as plain float arrays.
+ * Background workers test line of sight against it without touching the Tree objects.
+ */
+class ObstacleIndex {
+    final float[] x;
+    final float[] y;
+    final float[] radius;
+
+    /**
+     * Constructor that copies the tree circles.
+     * @param trees The trees of the map, null entries are skipped
+     */
+    ObstacleIndex(Tree[] trees) {
+        int count = 0;
+        if (trees != null) {
+            for (Tree tree : trees) {
+                if (tree != null) count++;
+            }
+        }
+
+        this.x = new float[count];
+        this.y = new float[count];
+        this.radius = new float[count];
+        int i = 0;
+        if (trees != null) {
+            for (Tree tree : trees) {
+                if (tree == null) continue;
+                x[i] = tree.position.x;
+                y[i] = tree.position.y;
+                radius[i] = tree.radius;
+                i++;
+            }
+        }
+    }
+
+    /**
+     * Checks if a segment keeps a distance from every obstacle.
+     * @param ax X-coordinate of the segment start
+     * @param ay Y-coordinate of the segment start
+     * @param bx X-coordinate of the segment end
+     * @param by Y-coordinate of the segment end
+     * @param clearance Distance kept from the obstacle edges
+     * @return true if no obstacle comes closer than its radius plus the clearance
+     */
+    boolean segmentClear(float ax, float ay, float bx, float by, float clearance) {
+        return GeometryKernel.INSTANCE.segmentClear(ax, ay, bx, by, x, y, radius, x.length, clearance);
+    }
+
+    /**
+     * Collects the obstacles that can cast a shadow inside a view disc.
+     * @param x X-coordinate of the viewer
+     * @param y Y-coordinate of the viewer
+     * @param range View radius
+     * @param casters Array the obstacle indices are written to, at least as long as the index
+     * @return Number of obstacles written
+     */
+    int castersWithin(float x, float y, float range, int[] casters) {
+        int count = 0;
+        for (int i = 0; i < this.x.length; i++) {
+            float dx = this.x[i] - x;
+            float dy = this.y[i] - y;
+            float reach = range + radius[i];
+            if (dx * dx + dy * dy < reach * reach) {
+                casters[count++] = i;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Checks if a point lies in the shadow one of the casters throws away from a viewer.
+     * The shadow of a circle is the wedge behind it, so the point is hidden when the line
+     * from the viewer to it passes through the circle.
+     * @param vx X-coordinate of the viewer
+     * @param vy Y-coordinate of the viewer
+     * @param px X-coordinate of the point
+     * @param py Y-coordinate of the point
+     * @param casters Obstacle indices from castersWithin
+     * @param count Number of casters
+     * @return true if the point can not be seen from the viewer
+     */
+    boolean inShadow(float vx, float vy, float px, float py, int[] casters, int count) {
+        float dx = px - vx;
+        float dy = py - vy;
+        float lengthSquared = dx * dx + dy * dy;
+        if (lengthSquared == 0) return false;
+
+        for (int k = 0; k < count; k++) {
+            int i = casters[k];
+            float t = ((x[i] - vx) * dx + (y[i] - vy) * dy) / lengthSquared;
+            if (t <= 0) continue; // the obstacle is behind the viewer
+
+            t = Math.min(1, t);
+            float cx = vx + t * dx - x[i];
+            float cy = vy + t * dy - y[i];
+            if (cx * cx + cy * cy < radius[i] * radius[i]) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
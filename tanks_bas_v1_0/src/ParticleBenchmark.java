@@ -0,0 +1,94 @@
+import processing.core.*;
+
+import java.util.Random;
+
+/**
+ * Standalone benchmark for the explosion particles.
+ * Emits a fixed number of explosions every frame until the particle count is steady, then times
+ * ParticleSystem.update and display per frame. Drawing goes to a renderer that only counts the
+ * fill and ellipse calls, so the time is the particle system's own work and not the rasterizing.
+ * Run with: java ParticleBenchmark [explosions per frame] [frames]
+ */
+class ParticleBenchmark {
+    public static void main(String[] args) {
+        int explosions = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int frames = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+
+        CountingRenderer parent = new CountingRenderer();
+        // Particles live 255 / fadeRate frames, so this holds every particle of the steady state
+        int lifetime = 255 / 10 + 1;
+        ParticleSystem particles = new ParticleSystem(parent, explosions * ProjectilePool.PARTICLES_PER_EXPLOSION * lifetime);
+        Random random = new Random(1);
+
+        // Warm up and fill the buffer to its steady state before timing
+        for (int frame = 0; frame < 2 * lifetime; frame++) {
+            frame(particles, explosions, random);
+        }
+
+        long emitTime = 0;
+        long updateTime = 0;
+        long displayTime = 0;
+        long liveParticles = 0;
+        parent.fills = 0;
+        parent.ellipses = 0;
+
+        for (int frame = 0; frame < frames; frame++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < explosions; i++) {
+                particles.explode(random.nextFloat() * 2000, random.nextFloat() * 2000, ProjectilePool.PARTICLES_PER_EXPLOSION);
+            }
+            emitTime += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            particles.update();
+            updateTime += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            particles.display();
+            displayTime += System.nanoTime() - start;
+
+            liveParticles += particles.count;
+        }
+
+        System.out.println(explosions + " explosions per frame, " + frames + " frames, "
+                + liveParticles / frames + " live particles on average");
+        System.out.printf("emit:    %.3f ms per frame%n", emitTime / 1e6 / frames);
+        System.out.printf("update:  %.3f ms per frame%n", updateTime / 1e6 / frames);
+        System.out.printf("display: %.3f ms per frame, %d fill and %d ellipse calls per frame%n",
+                displayTime / 1e6 / frames, parent.fills / frames, parent.ellipses / frames);
+        System.out.printf("total:   %.3f ms per frame%n", (emitTime + updateTime + displayTime) / 1e6 / frames);
+    }
+
+    /**
+     * Runs one untimed frame: emit the explosions, then update and draw.
+     */
+    static void frame(ParticleSystem particles, int explosions, Random random) {
+        for (int i = 0; i < explosions; i++) {
+            particles.explode(random.nextFloat() * 2000, random.nextFloat() * 2000, ProjectilePool.PARTICLES_PER_EXPLOSION);
+        }
+        particles.update();
+        particles.display();
+    }
+
+    /**
+     * PApplet that draws nothing and counts the calls the particle system makes.
+     */
+    static class CountingRenderer extends PApplet {
+        long fills;
+        long ellipses;
+
+        @Override
+        public void noStroke() {
+        }
+
+        @Override
+        public void fill(float v1, float v2, float v3, float alpha) {
+            fills++;
+        }
+
+        @Override
+        public void ellipse(float a, float b, float c, float d) {
+            ellipses++;
+        }
+    }
+}
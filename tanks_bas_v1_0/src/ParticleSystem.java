@@ -0,0 +1,162 @@
+import processing.core.*;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-capacity particle buffer for explosion effects, stored as parallel arrays.
+ * Dead particles are removed by moving the last live particle into their place, so the live
+ * particles always fill the front of the arrays. Random values come from a local xorshift
+ * generator, and drawing is batched by opacity so the fill color is set once per batch
+ * instead of once per particle.
+ */
+class ParticleSystem {
+    static final int OPACITY_BUCKETS = 16;
+
+    PApplet parent;
+    int capacity;
+    float[] x;
+    float[] y;
+    float[] vx;
+    float[] vy;
+    float[] size;
+    int[] opacity;
+    int count;
+
+    int fadeRate = 10;
+    float drag = 0.95f;
+    int seed;
+
+    int[] bucketStart;
+    int[] drawOrder;
+
+    /**
+     * Constructor that preallocates the particle storage.
+     * @param parent The Processing PApplet instance
+     * @param capacity Maximum number of live particles, new particles are dropped when it is reached
+     */
+    ParticleSystem(PApplet parent, int capacity) {
+        this.parent = parent;
+        this.capacity = capacity;
+        this.x = new float[capacity];
+        this.y = new float[capacity];
+        this.vx = new float[capacity];
+        this.vy = new float[capacity];
+        this.size = new float[capacity];
+        this.opacity = new int[capacity];
+        this.count = 0;
+        this.seed = 0x2545F491;
+        this.bucketStart = new int[OPACITY_BUCKETS + 1];
+        this.drawOrder = new int[capacity];
+    }
+
+    /**
+     * Emits an explosion of particles at a position with random directions, speeds and sizes.
+     * @param px X coordinate of the explosion
+     * @param py Y coordinate of the explosion
+     * @param particles Number of particles to emit
+     */
+    void explode(float px, float py, int particles) {
+        int emitted = Math.min(particles, capacity - count);
+        for (int i = 0; i < emitted; i++) {
+            int p = count++;
+
+            // Random velocity in all directions
+            float angle = nextFloat() * PApplet.TWO_PI;
+            float magnitude = 0.5f + nextFloat() * 2.0f;
+
+            x[p] = px;
+            y[p] = py;
+            vx[p] = (float) Math.cos(angle) * magnitude;
+            vy[p] = (float) Math.sin(angle) * magnitude;
+            size[p] = 5 + nextFloat() * 10;
+            opacity[p] = 255;
+        }
+    }
+
+    /**
+     * Moves, slows down and fades all particles, and removes the ones that faded out.
+     */
+    void update() {
+        int i = 0;
+        while (i < count) {
+            opacity[i] -= fadeRate;
+            if (opacity[i] <= 0) {
+                remove(i);
+                continue;
+            }
+
+            x[i] += vx[i];
+            y[i] += vy[i];
+
+            // Slow down over time
+            vx[i] *= drag;
+            vy[i] *= drag;
+            i++;
+        }
+    }
+
+    /**
+     * Removes a particle by moving the last live particle into its place.
+     * @param i Index of the particle to remove
+     */
+    private void remove(int i) {
+        int last = --count;
+        x[i] = x[last];
+        y[i] = y[last];
+        vx[i] = vx[last];
+        vy[i] = vy[last];
+        size[i] = size[last];
+        opacity[i] = opacity[last];
+    }
+
+    /**
+     * Renders all particles. Particles are grouped by opacity with a counting sort,
+     * and each group is drawn with a single fill color.
+     */
+    void display() {
+        if (count == 0) return;
+
+        Arrays.fill(bucketStart, 0);
+        for (int i = 0; i < count; i++) {
+            bucketStart[bucket(opacity[i]) + 1]++;
+        }
+        for (int b = 0; b < OPACITY_BUCKETS; b++) {
+            bucketStart[b + 1] += bucketStart[b];
+        }
+        for (int i = 0; i < count; i++) {
+            drawOrder[bucketStart[bucket(opacity[i])]++] = i;
+        }
+
+        parent.noStroke();
+        int start = 0;
+        for (int b = 0; b < OPACITY_BUCKETS; b++) {
+            int end = bucketStart[b];
+            if (end == start) continue;
+
+            parent.fill(255, 200, 0, (b + 1) * 256 / OPACITY_BUCKETS - 1); // Orange/yellow explosion
+            for (int k = start; k < end; k++) {
+                int p = drawOrder[k];
+                parent.ellipse(x[p], y[p], size[p], size[p]);
+            }
+            start = end;
+        }
+    }
+
+    /**
+     * Gets the opacity bucket of a particle.
+     */
+    private static int bucket(int opacity) {
+        return Math.min(OPACITY_BUCKETS - 1, opacity * OPACITY_BUCKETS / 256);
+    }
+
+    /**
+     * Returns the next value of the xorshift generator.
+     * @return Uniform random value in [0, 1)
+     */
+    float nextFloat() {
+        seed ^= seed << 13;
+        seed ^= seed >>> 17;
+        seed ^= seed << 5;
+        return (seed >>> 8) * 0x1.0p-24f;
+    }
+}
@@ -0,0 +1,74 @@
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs path searches on a pool of worker threads.
+ * Every request searches an immutable GraphSnapshot, so the draw thread can keep
+ * changing the live graph while searches are running.
+ */
+class PathPlanningService {
+    ExecutorService workers;
+    // Hierarchy searches of each worker, reused across queries and across hierarchies
+    ThreadLocal<ContractionHierarchy.UpwardSearch[]> hierarchySearches;
+
+    /**
+     * Constructor that starts the worker pool.
+     * @param threads Number of worker threads
+     */
+    PathPlanningService(int threads) {
+        this.workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "path-planner");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.hierarchySearches = ThreadLocal.withInitial(() ->
+                new ContractionHierarchy.UpwardSearch[]{new ContractionHierarchy.UpwardSearch(), new ContractionHierarchy.UpwardSearch()});
+    }
+
+    /**
+     * Queues a path search.
+     * @param snapshot The graph snapshot to search
+     * @param start The starting node
+     * @param goal The destination node
+     * @param useHeuristic true for A*, false for Dijkstra
+     * @return Future completed with the path, or an empty list if no path exists
+     */
+    CompletableFuture<ArrayList<Node>> request(GraphSnapshot snapshot, Node start, Node goal, boolean useHeuristic) {
+        return CompletableFuture.supplyAsync(() -> snapshot.findPath(start, goal, useHeuristic), workers);
+    }
+
+    /**
+     * Queues a bidirectional ALT search.
+     * @param snapshot The graph snapshot to search
+     * @param landmarks Landmark table for the heuristic, ignored unless it matches the snapshot version
+     * @param start The starting node
+     * @param goal The destination node
+     * @return Future completed with the path, or an empty list if no path exists
+     */
+    CompletableFuture<ArrayList<Node>> requestBidirectional(GraphSnapshot snapshot, LandmarkTable landmarks, Node start, Node goal) {
+        return CompletableFuture.supplyAsync(() -> new BidirectionalSearch(snapshot, landmarks, start, goal).run(), workers);
+    }
+
+    /**
+     * Queues a query on a contraction hierarchy.
+     * @param hierarchy The hierarchy to search
+     * @param start The starting node
+     * @param goal The destination node
+     * @return Future completed with the path, or an empty list if no path exists
+     */
+    CompletableFuture<ArrayList<Node>> requestHierarchy(ContractionHierarchy hierarchy, Node start, Node goal) {
+        return CompletableFuture.supplyAsync(() -> {
+            ContractionHierarchy.UpwardSearch[] searches = hierarchySearches.get();
+            return hierarchy.findPath(start, goal, searches[0], searches[1]);
+        }, workers);
+    }
+
+    /**
+     * Stops the worker threads.
+     */
+    void shutdown() {
+        workers.shutdownNow();
+    }
+}
@@ -0,0 +1,270 @@
+import processing.core.*;
+import java.util.*;
+
+/**
+ * Pool of all projectiles in the game, stored as parallel arrays.
+ * Every tank can have many shells in flight at once. Slots are preallocated and reused,
+ * so firing a shot creates no garbage. A shell that explodes hands its effect to the
+ * particle system and returns its slot right away.
+ * Active slots are kept in a dense list so the update loop only touches live shells.
+ */
+class ProjectilePool {
+    static final byte FREE = 0;
+    static final byte FLYING = 1;
+    static final int PARTICLES_PER_EXPLOSION = 15;
+
+    PApplet parent;
+    ParticleSystem particles;
+    HitGrid grid;
+    float speed = 5.0f;
+    float radius = 8.0f;
+
+    int capacity;
+    float[] x;
+    float[] y;
+    float[] vx;
+    float[] vy;
+    float[] startX;
+    float[] startY;
+    float[] midX;
+    float[] midY;
+    float[] hitTime;
+    Tank[] hitTank;
+    int[] owner;
+    byte[] state;
+
+    int[] active;
+    int activeCount;
+    int[] free;
+    int freeCount;
+
+    Tank[] owners;
+    int ownerCount;
+
+    /**
+     * Constructor that preallocates all slots.
+     * @param parent The Processing PApplet instance
+     * @param particles Particle system that draws the explosions
+     * @param capacity Maximum number of projectiles in flight at the same time
+     */
+    ProjectilePool(PApplet parent, ParticleSystem particles, int capacity) {
+        this.parent = parent;
+        this.particles = particles;
+        this.capacity = capacity;
+        this.x = new float[capacity];
+        this.y = new float[capacity];
+        this.vx = new float[capacity];
+        this.vy = new float[capacity];
+        this.startX = new float[capacity];
+        this.startY = new float[capacity];
+        this.midX = new float[capacity];
+        this.midY = new float[capacity];
+        this.hitTime = new float[capacity];
+        this.hitTank = new Tank[capacity];
+        this.owner = new int[capacity];
+        this.state = new byte[capacity];
+        this.active = new int[capacity];
+        this.free = new int[capacity];
+        this.grid = new HitGrid(parent.width, parent.height, 64, capacity);
+        this.owners = new Tank[8];
+
+        for (int slot = 0; slot < capacity; slot++) {
+            free[freeCount++] = capacity - 1 - slot;
+        }
+    }
+
+    /**
+     * Registers a tank that can fire from this pool.
+     * @param tank The tank to register
+     * @return Owner id the tank passes when firing
+     */
+    int registerOwner(Tank tank) {
+        if (ownerCount == owners.length) {
+            owners = Arrays.copyOf(owners, ownerCount * 2);
+        }
+        owners[ownerCount] = tank;
+        return ownerCount++;
+    }
+
+    /**
+     * Fires a projectile from a starting position in a direction.
+     * @param ownerId Owner id of the firing tank
+     * @param startX X coordinate of the muzzle
+     * @param startY Y coordinate of the muzzle
+     * @param directionX X component of the normalized firing direction
+     * @param directionY Y component of the normalized firing direction
+     * @return true if a slot was free, false if the pool is full and nothing was fired
+     */
+    boolean fire(int ownerId, float startX, float startY, float directionX, float directionY) {
+        if (freeCount == 0) return false;
+
+        int slot = free[--freeCount];
+        x[slot] = startX;
+        y[slot] = startY;
+        this.startX[slot] = startX;
+        this.startY[slot] = startY;
+        vx[slot] = directionX * speed;
+        vy[slot] = directionY * speed;
+        owner[slot] = ownerId;
+        state[slot] = FLYING;
+
+        active[activeCount++] = slot;
+        return true;
+    }
+
+    /**
+     * Gets the number of projectiles a tank has in flight.
+     * @param ownerId Owner id of the tank
+     * @return Number of flying shells
+     */
+    int inFlight(int ownerId) {
+        int count = 0;
+        for (int i = 0; i < activeCount; i++) {
+            if (owner[active[i]] == ownerId) count++;
+        }
+        return count;
+    }
+
+    /**
+     * Moves all flying projectiles one time step and remembers where the step started,
+     * so the hit test can sweep the whole step.
+     * @param dt Length of the time step in frames, 1 at normal speed
+     */
+    void update(float dt) {
+        for (int i = 0; i < activeCount; i++) {
+            int slot = active[i];
+            startX[slot] = x[slot];
+            startY[slot] = y[slot];
+            x[slot] += vx[slot] * dt;
+            y[slot] += vy[slot] * dt;
+        }
+    }
+
+    /**
+     * Checks all flying projectiles against tanks and trees and explodes the ones that hit.
+     * Every projectile is swept along its last step against the trees and against the tanks, which move
+     * from where they started this frame to where they are now. It explodes at its first time of impact,
+     * so large steps do not let shells pass through targets.
+     * The steps are bucketed in a uniform grid by their midpoints, and every tank and tree only
+     * tests the projectiles in the cells its swept hit circle can reach.
+     * A tank that is hit loses health and the owner is credited with the hit.
+     * Projectiles that leave the screen without hitting anything explode at the border.
+     * @param tanks All tanks in the game
+     * @param trees All trees in the game
+     * @param dt Length of the time step in frames the projectiles moved
+     */
+    void checkCollisions(Tank[] tanks, Tree[] trees, float dt) {
+        if (activeCount == 0) return;
+
+        for (int i = 0; i < activeCount; i++) {
+            int slot = active[i];
+            midX[slot] = (startX[slot] + x[slot]) / 2;
+            midY[slot] = (startY[slot] + y[slot]) / 2;
+            hitTime[slot] = Float.POSITIVE_INFINITY;
+            hitTank[slot] = null;
+        }
+        grid.build(midX, midY, active, activeCount);
+        float halfStep = speed * dt / 2;
+
+        for (Tank tank : tanks) {
+            if (tank == null || tank.isDestroyed) continue;
+            // The tank's real step, push-outs and border bounces earlier in the frame may have changed it
+            sweepHits(tank.position.x, tank.position.y,
+                    tank.position.x - tank.previousPosition.x, tank.position.y - tank.previousPosition.y,
+                    radius + tank.diameter / 2, halfStep, tank);
+        }
+        for (Tree tree : trees) {
+            if (tree == null) continue;
+            sweepHits(tree.position.x, tree.position.y, 0, 0, radius + tree.radius, halfStep, null);
+        }
+
+        for (int i = activeCount - 1; i >= 0; i--) {
+            int slot = active[i];
+            float t = hitTime[slot];
+
+            if (t <= 1) {
+                x[slot] = startX[slot] + (x[slot] - startX[slot]) * t;
+                y[slot] = startY[slot] + (y[slot] - startY[slot]) * t;
+
+                Tank target = hitTank[slot];
+                if (target != null && !target.isDestroyed) {
+                    target.handleHit();
+                    owners[owner[slot]].registerHit();
+                }
+                explode(i);
+            } else if (x[slot] < 0 || x[slot] > parent.width || y[slot] < 0 || y[slot] > parent.height) {
+                explode(i);
+            }
+        }
+    }
+
+    /**
+     * Sweeps the projectiles near an entity against it and keeps the earliest impact of each projectile.
+     * Projectiles are not tested against their own shooter.
+     * @param px X coordinate of the entity at the end of the step
+     * @param py Y coordinate of the entity at the end of the step
+     * @param moveX How far the entity moved along x during the step
+     * @param moveY How far the entity moved along y during the step
+     * @param reach Hit distance between the centers
+     * @param halfStep Half the distance a projectile moves in the step
+     * @param target The tank at the position, or null for a tree
+     */
+    private void sweepHits(float px, float py, float moveX, float moveY, float reach, float halfStep, Tank target) {
+        float fromX = px - moveX;
+        float fromY = py - moveY;
+        float range = reach + halfStep + (float) Math.sqrt(moveX * moveX + moveY * moveY) / 2;
+        float centerX = px - moveX / 2;
+        float centerY = py - moveY / 2;
+
+        int minCol = grid.col(centerX - range);
+        int maxCol = grid.col(centerX + range);
+        int minRow = grid.row(centerY - range);
+        int maxRow = grid.row(centerY + range);
+
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int col = minCol; col <= maxCol; col++) {
+                int cell = row * grid.cols + col;
+                for (int k = grid.cellStart[cell]; k < grid.cellStart[cell + 1]; k++) {
+                    int slot = grid.items[k];
+                    if (target == owners[owner[slot]]) continue;
+
+                    float t = Collisions.timeOfImpact(
+                            startX[slot] - fromX, startY[slot] - fromY,
+                            x[slot] - startX[slot] - moveX, y[slot] - startY[slot] - moveY,
+                            reach);
+                    if (t >= 0 && t < hitTime[slot]) {
+                        hitTime[slot] = t;
+                        hitTank[slot] = target;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Emits the explosion of a projectile and returns its slot to the pool.
+     * The last active slot takes its place in the active list, so callers iterate the list backwards.
+     * @param index Position of the projectile in the active list
+     */
+    void explode(int index) {
+        int slot = active[index];
+        particles.explode(x[slot], y[slot], PARTICLES_PER_EXPLOSION);
+
+        active[index] = active[--activeCount];
+        state[slot] = FREE;
+        hitTank[slot] = null;
+        free[freeCount++] = slot;
+    }
+
+    /**
+     * Renders all flying projectiles.
+     */
+    void display() {
+        parent.noStroke();
+        for (int i = 0; i < activeCount; i++) {
+            int slot = active[i];
+            parent.fill(owners[owner[slot]].col);
+            parent.ellipse(x[slot], y[slot], radius * 2, radius * 2);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+import java.util.*;
+
+/**
+ * A* (or Dijkstra) search on a GraphSnapshot that can be paused and resumed.
+ * Each call to step expands at most a given number of nodes or runs until a deadline,
+ * so one long query can be spread over several frames.
+ */
+class ResumableSearch {
+    GraphSnapshot snapshot;
+    Node startNode;
+    Node goalNode;
+    int goal;
+    boolean useHeuristic;
+
+    float[] gScore;
+    int[] traveledFrom;
+    boolean[] closed;
+    PriorityQueue<GraphSnapshot.QueueEntry> openSet;
+
+    int expansions;
+    int steps;
+    boolean finished;
+    ArrayList<Node> path;
+
+    /**
+     * Constructor that sets up the search without expanding any nodes.
+     * @param snapshot The graph snapshot to search
+     * @param start The starting node
+     * @param goal The destination node
+     * @param useHeuristic true for A*, false for Dijkstra
+     */
+    ResumableSearch(GraphSnapshot snapshot, Node start, Node goal, boolean useHeuristic) {
+        this.snapshot = snapshot;
+        this.startNode = start;
+        this.goalNode = goal;
+        this.useHeuristic = useHeuristic;
+        this.path = new ArrayList<>();
+        this.expansions = 0;
+        this.steps = 0;
+
+        int startIndex = snapshot.indexOf(start);
+        this.goal = snapshot.indexOf(goal);
+        if (startIndex < 0 || this.goal < 0) {
+            this.finished = true;
+            return;
+        }
+
+        int count = snapshot.nodes.length;
+        this.gScore = new float[count];
+        this.traveledFrom = new int[count];
+        this.closed = new boolean[count];
+        Arrays.fill(gScore, Float.MAX_VALUE);
+        Arrays.fill(traveledFrom, -1);
+
+        this.openSet = new PriorityQueue<>((a, b) -> Float.compare(a.f, b.f));
+        gScore[startIndex] = 0;
+        openSet.add(new GraphSnapshot.QueueEntry(startIndex, estimate(startIndex)));
+        this.finished = false;
+    }
+
+    /**
+     * Continues the search.
+     * @param maxExpansions Maximum number of nodes to expand in this call
+     * @param deadlineNanos System.nanoTime value at which to pause
+     * @return true if the search has finished, path then holds the result
+     */
+    boolean step(int maxExpansions, long deadlineNanos) {
+        steps++;
+        int expanded = 0;
+        while (!finished && expanded < maxExpansions) {
+            if (openSet.isEmpty()) {
+                finished = true;
+                break;
+            }
+            // Checking the clock is cheap compared to an expansion, but not free
+            if ((expanded & 15) == 15 && System.nanoTime() >= deadlineNanos) {
+                break;
+            }
+
+            int current = openSet.poll().node;
+            if (closed[current]) continue;
+            if (current == goal) {
+                path = snapshot.reconstructPath(traveledFrom, current);
+                finished = true;
+                break;
+            }
+            closed[current] = true;
+            expanded++;
+            expansions++;
+
+            int[] neighbors = snapshot.neighbors[current];
+            float[] weights = snapshot.weights[current];
+            for (int k = 0; k < neighbors.length; k++) {
+                int neighbor = neighbors[k];
+                if (closed[neighbor]) continue;
+
+                float tentative = gScore[current] + weights[k];
+                if (tentative < gScore[neighbor]) {
+                    gScore[neighbor] = tentative;
+                    traveledFrom[neighbor] = current;
+                    openSet.add(new GraphSnapshot.QueueEntry(neighbor, tentative + estimate(neighbor)));
+                }
+            }
+        }
+        return finished;
+    }
+
+    /**
+     * Runs the search to completion.
+     * @return List of nodes from start to goal, or an empty list if no path exists
+     */
+    ArrayList<Node> run() {
+        step(Integer.MAX_VALUE, Long.MAX_VALUE);
+        return path;
+    }
+
+    private float estimate(int node) {
+        return useHeuristic ? snapshot.heuristic(node, goal) : 0;
+    }
+}
@@ -0,0 +1,63 @@
+/**
+ * Plain Java implementation of the geometry kernel, one circle or point at a time.
+ * The static methods take a start index so the SIMD kernel can use them for the tail of its arrays.
+ */
+class ScalarGeometryKernel implements GeometryKernel {
+
+    @Override
+    public boolean segmentClear(float ax, float ay, float bx, float by, float[] cx, float[] cy, float[] radius, int count, float clearance) {
+        return segmentClear(ax, ay, bx, by, cx, cy, radius, 0, count, clearance);
+    }
+
+    @Override
+    public int nearest(float px, float py, float[] x, float[] y, int count) {
+        return nearest(px, py, x, y, 0, count, -1, Float.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Tests a segment against the circles from one index to another.
+     * @param from First circle to test
+     * @param to Index after the last circle to test
+     * @return true if no circle in the range comes closer than its radius plus the clearance
+     */
+    static boolean segmentClear(float ax, float ay, float bx, float by, float[] cx, float[] cy, float[] radius, int from, int to, float clearance) {
+        float dx = bx - ax;
+        float dy = by - ay;
+        float lengthSquared = dx * dx + dy * dy;
+        float inverse = lengthSquared == 0 ? 0 : 1 / lengthSquared;
+
+        for (int i = from; i < to; i++) {
+            float ox = cx[i] - ax;
+            float oy = cy[i] - ay;
+            float t = Math.max(0, Math.min(1, (ox * dx + oy * dy) * inverse));
+            float ex = ox - t * dx;
+            float ey = oy - t * dy;
+            float reach = radius[i] + clearance;
+            if (ex * ex + ey * ey < reach * reach) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Searches the points from one index to another for one closer than the best so far.
+     * @param from First point to search
+     * @param to Index after the last point to search
+     * @param best Index of the best point so far
+     * @param bestDistanceSquared Squared distance of the best point so far
+     * @return Index of the closest point, or best if none in the range is closer
+     */
+    static int nearest(float px, float py, float[] x, float[] y, int from, int to, int best, float bestDistanceSquared) {
+        for (int i = from; i < to; i++) {
+            float dx = x[i] - px;
+            float dy = y[i] - py;
+            float distanceSquared = dx * dx + dy * dy;
+            if (distanceSquared < bestDistanceSquared) {
+                bestDistanceSquared = distanceSquared;
+                best = i;
+            }
+        }
+        return best;
+    }
+}
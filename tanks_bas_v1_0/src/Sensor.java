@@ -34,7 +34,8 @@ class SensorDetection {
 /**
  * Handles Line of Sight (LOS) detection for tanks.
  * Detects objects in the tank's line of sight and returns information about them.
- * In combat mode, sensor spins independently to scan for enemies.
+ * In combat mode, sensor spins independently to scan for enemies, or sweeps all 360 degrees
+ * analytically in one tick when analyticSweep is set.
  */
 class Sensor {
     PApplet parent;
@@ -48,6 +49,26 @@ class Sensor {
     float rotationSpeed = PApplet.radians(3);
     boolean isSpinning = false;
     boolean combatMode = false;
+    boolean analyticSweep = true;
+
+    /**
+     * Angular interval an object covers as seen from the tank.
+     */
+    static class AngularInterval {
+        float from;
+        float to;
+        float nearDistance;
+        Object object;
+        SensorDetection.ObjectType type;
+
+        AngularInterval(float from, float to, float nearDistance, Object object, SensorDetection.ObjectType type) {
+            this.from = from;
+            this.to = to;
+            this.nearDistance = nearDistance;
+            this.object = object;
+            this.type = type;
+        }
+    }
     /**
      * Constructor for tank sensor system.
      * @param parent The Processing PApplet instance
@@ -77,6 +98,13 @@ class Sensor {
 
         updateCombatMode();
 
+        if (combatMode && !isLockedOn && analyticSweep) {
+            isSpinning = false;
+            sweepForEnemies(allTanks, allTrees, detections);
+            visualize(detections);
+            return detections;
+        }
+
         if (combatMode && !isLockedOn) {
             isSpinning = true;
             rotationAngle += rotationSpeed;
@@ -155,6 +183,142 @@ class Sensor {
         }
     }
 
+    /**
+     * Finds every visible tank and tree around the tank in one pass, instead of spinning a single ray.
+     * Every object within maxViewDistance covers an angular interval as seen from the tank.
+     * The intervals are handled from the nearest object outwards, and an object is visible if part of
+     * its interval is not yet covered by nearer objects. The covered angles are kept as merged
+     * intervals in a sorted map, so the sweep takes O(k log k) for k objects in range.
+     * The sensor locks onto the nearest visible enemy.
+     * @param allTanks Array of tanks to check
+     * @param allTrees Array of trees to check
+     * @param detections List to add detections to
+     */
+    private void sweepForEnemies(Tank[] allTanks, Tree[] allTrees, ArrayList<SensorDetection> detections) {
+        ArrayList<AngularInterval> intervals = new ArrayList<>();
+
+        if (allTanks != null) {
+            for (Tank otherTank : allTanks) {
+                if (otherTank == null || otherTank == tank || otherTank.isDestroyed) continue;
+                SensorDetection.ObjectType type = otherTank.col == tank.col ?
+                        SensorDetection.ObjectType.FRIEND :
+                        SensorDetection.ObjectType.ENEMY;
+                addInterval(intervals, otherTank.position, otherTank.diameter / 2, otherTank, type);
+            }
+        }
+        if (allTrees != null) {
+            for (Tree tree : allTrees) {
+                if (tree != null) {
+                    addInterval(intervals, tree.position, tree.radius, tree, SensorDetection.ObjectType.TREE);
+                }
+            }
+        }
+
+        intervals.sort((a, b) -> Float.compare(a.nearDistance, b.nearDistance));
+
+        TreeMap<Float, Float> covered = new TreeMap<>();
+        Tank nearestEnemy = null;
+        HashSet<Object> seen = new HashSet<>();
+
+        for (AngularInterval interval : intervals) {
+            boolean visible = !isCovered(covered, interval.from, interval.to);
+            cover(covered, interval.from, interval.to);
+            if (!visible || !seen.add(interval.object)) continue;
+
+            PVector position = interval.type == SensorDetection.ObjectType.TREE ?
+                    ((Tree) interval.object).position : ((Tank) interval.object).position;
+            PVector toObject = PVector.sub(position, tank.position);
+            float distance = toObject.mag();
+            if (distance > 0) {
+                toObject.mult(interval.nearDistance / distance);
+            }
+            detections.add(new SensorDetection(PVector.add(tank.position, toObject), interval.type, interval.object));
+
+            if (interval.type == SensorDetection.ObjectType.ENEMY && nearestEnemy == null) {
+                nearestEnemy = (Tank) interval.object;
+            }
+        }
+
+        if (nearestEnemy != null) {
+            setLockedTarget(nearestEnemy);
+            setIsLockedOn(true);
+            rotationAngle = PApplet.atan2(nearestEnemy.position.y - tank.position.y, nearestEnemy.position.x - tank.position.x);
+            System.out.println("Sensor: " + tank.name + " found enemy tank " + nearestEnemy.name + " in sweep");
+        }
+    }
+
+    /**
+     * Adds the angular interval of a circular object if any of it lies within view distance.
+     * Intervals that cross the angle -PI/PI are split in two.
+     * @param intervals List to add the intervals to
+     * @param center Center of the object
+     * @param radius Radius of the object
+     * @param object The object itself
+     * @param type Detection type of the object
+     */
+    private void addInterval(ArrayList<AngularInterval> intervals, PVector center, float radius, Object object, SensorDetection.ObjectType type) {
+        float dx = center.x - tank.position.x;
+        float dy = center.y - tank.position.y;
+        float distance = (float) Math.sqrt(dx * dx + dy * dy);
+        float nearDistance = Math.max(0, distance - radius);
+        if (nearDistance > maxViewDistance) return;
+
+        if (distance <= radius) {
+            intervals.add(new AngularInterval(-PApplet.PI, PApplet.PI, 0, object, type));
+            return;
+        }
+
+        float angle = (float) Math.atan2(dy, dx);
+        float halfWidth = (float) Math.asin(radius / distance);
+        float from = angle - halfWidth;
+        float to = angle + halfWidth;
+
+        if (from < -PApplet.PI) {
+            intervals.add(new AngularInterval(from + PApplet.TWO_PI, PApplet.PI, nearDistance, object, type));
+            intervals.add(new AngularInterval(-PApplet.PI, to, nearDistance, object, type));
+        } else if (to > PApplet.PI) {
+            intervals.add(new AngularInterval(from, PApplet.PI, nearDistance, object, type));
+            intervals.add(new AngularInterval(-PApplet.PI, to - PApplet.TWO_PI, nearDistance, object, type));
+        } else {
+            intervals.add(new AngularInterval(from, to, nearDistance, object, type));
+        }
+    }
+
+    /**
+     * Checks if an angular interval lies completely inside the covered angles.
+     * @param covered Disjoint covered intervals, keyed by start angle
+     * @param from Start angle of the interval
+     * @param to End angle of the interval
+     * @return true if nothing of the interval is visible
+     */
+    private static boolean isCovered(TreeMap<Float, Float> covered, float from, float to) {
+        Map.Entry<Float, Float> entry = covered.floorEntry(from);
+        return entry != null && entry.getValue() >= to;
+    }
+
+    /**
+     * Adds an angular interval to the covered angles, merging it with the intervals it overlaps.
+     * @param covered Disjoint covered intervals, keyed by start angle
+     * @param from Start angle of the interval
+     * @param to End angle of the interval
+     */
+    private static void cover(TreeMap<Float, Float> covered, float from, float to) {
+        Map.Entry<Float, Float> before = covered.floorEntry(from);
+        if (before != null && before.getValue() >= from) {
+            from = before.getKey();
+            to = Math.max(to, before.getValue());
+            covered.remove(before.getKey());
+        }
+
+        Map.Entry<Float, Float> next = covered.ceilingEntry(from);
+        while (next != null && next.getKey() <= to) {
+            to = Math.max(to, next.getValue());
+            covered.remove(next.getKey());
+            next = covered.ceilingEntry(from);
+        }
+        covered.put(from, to);
+    }
+
     /**
      * Performs comprehensive scan for all object types.
      * @param allTanks Array of tanks to scan
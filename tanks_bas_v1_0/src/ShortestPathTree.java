@@ -0,0 +1,235 @@
+import java.util.*;
+
+/**
+ * Single-source shortest path tree rooted at one node of the navigation graph.
+ * The graph is undirected, so the tree also holds the shortest path from every node back to the root.
+ * The tree is built once and then repaired after every edge change, so only the part of the tree
+ * whose distances actually change is searched again.
+ */
+class ShortestPathTree {
+    Node root;
+    HashMap<Node, Node> next;
+    HashMap<Node, Float> distance;
+
+    /**
+     * Entry in the Dijkstra open set.
+     */
+    static class QueueEntry {
+        Node node;
+        float distance;
+
+        QueueEntry(Node node, float distance) {
+            this.node = node;
+            this.distance = distance;
+        }
+    }
+
+    /**
+     * Constructor that builds the tree with Dijkstra's algorithm.
+     * @param root The node every path leads to
+     */
+    ShortestPathTree(Node root) {
+        this.root = root;
+        this.next = new HashMap<>();
+        this.distance = new HashMap<>();
+        build();
+    }
+
+    /**
+     * Constructor for a tree computed elsewhere, for example from a contraction hierarchy.
+     * @param root The node every path leads to
+     * @param next The next node toward the root for every node that can reach it
+     * @param distance The distance to the root of every node that can reach it
+     */
+    ShortestPathTree(Node root, HashMap<Node, Node> next, HashMap<Node, Float> distance) {
+        this.root = root;
+        this.next = next;
+        this.distance = distance;
+    }
+
+    /**
+     * Runs Dijkstra from the root over all traversable edges.
+     */
+    private void build() {
+        distance.put(root, 0f);
+        PriorityQueue<QueueEntry> openSet = new PriorityQueue<>((a, b) -> Float.compare(a.distance, b.distance));
+        openSet.add(new QueueEntry(root, 0f));
+        propagate(openSet);
+    }
+
+    /**
+     * Settles the queued nodes in order of distance and lowers the distance of every neighbor
+     * that gets a shorter path through them. Nodes whose distance does not change are not expanded.
+     * @param openSet Nodes whose distance has just been lowered
+     */
+    private void propagate(PriorityQueue<QueueEntry> openSet) {
+        while (!openSet.isEmpty()) {
+            QueueEntry entry = openSet.poll();
+            Node current = entry.node;
+            if (entry.distance > distance.get(current)) continue;
+
+            for (Edge edge : current.edges) {
+                if (!edge.traversable) continue;
+
+                Node neighbor = edge.destination;
+                float newDistance = entry.distance + edge.weight;
+                Float oldDistance = distance.get(neighbor);
+                if (oldDistance == null || newDistance < oldDistance) {
+                    distance.put(neighbor, newDistance);
+                    next.put(neighbor, current);
+                    openSet.add(new QueueEntry(neighbor, newDistance));
+                }
+            }
+        }
+    }
+
+    /**
+     * Repairs the tree after the connection between two nodes was added, removed or changed cost.
+     * A cheaper connection lowers the distances behind it. A tree edge that got more expensive or
+     * disappeared detaches the subtree below it, which is then reattached from its surroundings.
+     * @param u First node of the changed connection
+     * @param v Second node of the changed connection
+     */
+    void edgeChanged(Node u, Node v) {
+        float weight = linkWeight(u, v);
+        if (next.get(v) == u) {
+            repairTreeEdge(u, v, weight);
+        } else if (next.get(u) == v) {
+            repairTreeEdge(v, u, weight);
+        } else {
+            relax(u, v, weight);
+            relax(v, u, weight);
+        }
+    }
+
+    /**
+     * Repairs the tree after the cost of one of its own edges changed.
+     * @param parent The node closer to the root
+     * @param child The node that reaches the root through parent
+     * @param weight The new cost of the connection, or Float.MAX_VALUE if it is gone
+     */
+    private void repairTreeEdge(Node parent, Node child, float weight) {
+        if (weight == Float.MAX_VALUE) {
+            detach(child);
+            return;
+        }
+        float newDistance = distance.get(parent) + weight;
+        float oldDistance = distance.get(child);
+        if (newDistance < oldDistance) {
+            lower(child, parent, newDistance);
+        } else if (newDistance > oldDistance) {
+            detach(child);
+        }
+    }
+
+    /**
+     * Uses a connection that is not part of the tree if it gives a shorter path.
+     */
+    private void relax(Node from, Node to, float weight) {
+        Float fromDistance = distance.get(from);
+        if (fromDistance == null || weight == Float.MAX_VALUE) return;
+
+        float newDistance = fromDistance + weight;
+        Float oldDistance = distance.get(to);
+        if (oldDistance == null || newDistance < oldDistance) {
+            lower(to, from, newDistance);
+        }
+    }
+
+    /**
+     * Gives a node a shorter distance and passes the improvement on to its neighbors.
+     */
+    private void lower(Node node, Node parent, float newDistance) {
+        distance.put(node, newDistance);
+        next.put(node, parent);
+        PriorityQueue<QueueEntry> openSet = new PriorityQueue<>((a, b) -> Float.compare(a.distance, b.distance));
+        openSet.add(new QueueEntry(node, newDistance));
+        propagate(openSet);
+    }
+
+    /**
+     * Removes the subtree below a node and reattaches every node of it through its best neighbor
+     * outside the subtree. Distances outside the subtree can not get shorter when an edge gets
+     * more expensive, so only the subtree is searched again.
+     * @param top The root of the subtree whose path to the root got longer
+     */
+    private void detach(Node top) {
+        ArrayList<Node> subtree = new ArrayList<>();
+        HashSet<Node> detached = new HashSet<>();
+        subtree.add(top);
+        detached.add(top);
+        for (int i = 0; i < subtree.size(); i++) {
+            Node current = subtree.get(i);
+            for (Edge edge : current.edges) {
+                Node child = edge.destination;
+                if (next.get(child) == current && detached.add(child)) {
+                    subtree.add(child);
+                }
+            }
+        }
+        for (Node node : subtree) {
+            distance.remove(node);
+            next.remove(node);
+        }
+
+        PriorityQueue<QueueEntry> openSet = new PriorityQueue<>((a, b) -> Float.compare(a.distance, b.distance));
+        for (Node node : subtree) {
+            float best = Float.MAX_VALUE;
+            Node bestParent = null;
+            for (Edge edge : node.edges) {
+                Float neighborDistance = distance.get(edge.destination);
+                if (!edge.traversable || neighborDistance == null) continue;
+                if (neighborDistance + edge.weight < best) {
+                    best = neighborDistance + edge.weight;
+                    bestParent = edge.destination;
+                }
+            }
+            if (bestParent != null) {
+                distance.put(node, best);
+                next.put(node, bestParent);
+                openSet.add(new QueueEntry(node, best));
+            }
+        }
+        propagate(openSet);
+    }
+
+    /**
+     * Gets the cost of the traversable connection from one node to another.
+     * @return The edge weight, or Float.MAX_VALUE if there is no traversable connection
+     */
+    private static float linkWeight(Node from, Node to) {
+        for (Edge edge : from.edges) {
+            if (edge.destination == to && edge.traversable) {
+                return edge.weight;
+            }
+        }
+        return Float.MAX_VALUE;
+    }
+
+    /**
+     * Checks if a node can reach the root.
+     * @param node The node to check
+     * @return true if the node is part of the tree
+     */
+    boolean contains(Node node) {
+        return distance.containsKey(node);
+    }
+
+    /**
+     * Reads the path from a node to the root by following the next pointers.
+     * @param from The node to start from
+     * @return List of nodes from the start node to the root, or an empty list if unreachable
+     */
+    ArrayList<Node> pathToRoot(Node from) {
+        ArrayList<Node> path = new ArrayList<>();
+        if (!contains(from)) return path;
+
+        Node current = from;
+        path.add(current);
+        while (current != root) {
+            current = next.get(current);
+            path.add(current);
+        }
+        return path;
+    }
+}
@@ -13,6 +13,7 @@ class Tank {
     PVector acceleration;
     PVector velocity;
     PVector position;
+    PVector previousPosition;
 
     PVector startpos;
     String name;
@@ -31,7 +32,8 @@ class Tank {
 
     int health = 3;
     boolean isDestroyed = false;
-    Projectile projectile;
+    ProjectilePool projectiles;
+    int projectileOwnerId = -1;
     int reloadTime = 180; // 3 seconds at 60 fps
     int reloadCounter = 0;
     boolean canFire = true;
@@ -56,6 +58,7 @@ class Tank {
 
         this.startpos = new PVector(_startpos.x, _startpos.y);
         this.position = new PVector(this.startpos.x, this.startpos.y);
+        this.previousPosition = new PVector(this.startpos.x, this.startpos.y);
         this.velocity = new PVector(0, 0);
         this.acceleration = new PVector(0, 0);
 
@@ -68,8 +71,15 @@ class Tank {
         this.fieldOfView = 100.0f;
 
         this.losSensor = new Sensor(parent, this, 160.0f, PApplet.radians(45));
+    }
 
-        this.projectile = new Projectile(parent, this);
+    /**
+     * Lets the tank fire from a shared projectile pool.
+     * @param projectiles The pool the tank's shells are taken from
+     */
+    void setProjectilePool(ProjectilePool projectiles) {
+        this.projectiles = projectiles;
+        this.projectileOwnerId = projectiles.registerOwner(this);
     }
 
     void registerHit() {
@@ -100,25 +110,34 @@ class Tank {
 
     }
     /**
-     * Fires the tank's projectile in the current facing direction.
+     * Fires a projectile in the current facing direction.
      * Handles both normal firing and locked-on target firing.
+     * Earlier shells keep flying, and no objects are created for the shot.
      */
     void fire() {
-        if (!canFire || isDestroyed) return;
+        if (!canFire || isDestroyed || projectiles == null) return;
 
-        PVector direction = new PVector();
+        float directionX;
+        float directionY;
 
         if (state == 9 && losSensor.getIsLockedOn() && losSensor.lockedTarget != null) {
-            direction = PVector.sub(losSensor.lockedTarget.position, position);
-            direction.normalize();
+            directionX = losSensor.lockedTarget.position.x - position.x;
+            directionY = losSensor.lockedTarget.position.y - position.y;
         } else {
-            direction.set(this.velocity);
-            direction.normalize();
+            directionX = velocity.x;
+            directionY = velocity.y;
         }
 
-        PVector cannonEnd = PVector.add(position, PVector.mult(direction, diameter / 2 + 5));
+        float length = (float) Math.sqrt(directionX * directionX + directionY * directionY);
+        if (length > 0) {
+            directionX /= length;
+            directionY /= length;
+        }
 
-        projectile.fire(cannonEnd, direction);
+        float muzzle = diameter / 2 + 5;
+        if (!projectiles.fire(projectileOwnerId, position.x + directionX * muzzle, position.y + directionY * muzzle, directionX, directionY)) {
+            return;
+        }
         canFire = false;
         reloadCounter = reloadTime;
 
@@ -135,9 +154,12 @@ class Tank {
 
     /**
      * Updates tank position, velocity, and all systems based on current state.
-     * Handles movement, projectile updates, and reload timing.
+     * Handles movement and reload timing.
      */
     void update() {
+        // Remember where this step starts, so collisions can sweep the whole step
+        previousPosition.set(position);
+
         // Update movement based on current state
         if (!isDestroyed) {
             float effectiveMaxSpeed = maxspeed;
@@ -224,8 +246,6 @@ class Tank {
             }
             position.add(velocity);
         }
-        projectile.update();
-
         if (!canFire) {
             reloadCounter--;
             if (reloadCounter <= 0) {
@@ -314,7 +334,7 @@ class Tank {
 
     /**
      * Renders the complete tank display including health, reload status, and info.
-     * Shows tank body, field of view, status information, and projectiles.
+     * Shows tank body, field of view and status information.
      */
     void display() {
         parent.fill(this.col);
@@ -368,9 +388,6 @@ class Tank {
         parent.text(navState + "\n" + this.name + "\n( " + (int) this.position.x + ", " + (int) this.position.y + " )", 25 + 5, -5 - 5);
 
         parent.popMatrix();
-
-        // Display projectile
-        projectile.display();
     }
 
     /**
@@ -39,19 +39,20 @@ public class TankAgent {
     }
     /**
      * Sets up collision handling callbacks for this agent's tank.
+     * The handler is registered for this tank only and receives no events of other tanks.
      * @param collisions The collision manager to register handlers with
      */
     void setupCollisionHandler(Collisions collisions) {
-        collisions.setCollisionHandler(new CollisionHandler() {
+        collisions.setCollisionHandler(tank, new CollisionHandler() {
             @Override
             public void handleBorderCollision(Tank collidedTank) {
-                if (collidedTank == tank && shouldHandleCollision()) {
+                if (shouldHandleCollision()) {
                     borderCollisionHandle();
                 }
             }
             @Override
             public void handleTreeCollision(Tank collidedTank, Tree tree) {
-                if (collidedTank == tank && shouldHandleCollision()) {
+                if (shouldHandleCollision()) {
                     if (tree == null) {
                         Integer counter = explorationManager.samePositionCounters.get(tank);
                         if (counter != null) {
@@ -63,15 +64,12 @@ public class TankAgent {
 
             @Override
             public boolean isReturningHome(Tank checkTank) {
-                if (checkTank == tank) {
-                    return explorationManager.isReturningHome(tank);
-                }
-                return false;
+                return explorationManager.isReturningHome(tank);
             }
 
             @Override
             public void handleEnemyBaseCollision(Tank collidedTank) {
-                if (collidedTank == tank && shouldHandleCollision()) {
+                if (shouldHandleCollision()) {
                     //System.out.println("Tank " + tank.name + " collided with enemy base");
                     //explorationManager.returnAllHome();
                     //TODO: reposition kanske around enemy base?
@@ -79,8 +77,9 @@ public class TankAgent {
             }
 
             @Override
-            public void handleTankCollision(Tank tank, Tank tank2) {
-                if (!Objects.equals(tank.navState, "idle") && !Objects.equals(tank2.navState, "idle") && shouldHandleCollision()) {
+            public void handleTankCollision(Tank collidedTank, Tank otherTank) {
+                if (!Objects.equals(tank.navState, "idle") && !Objects.equals(otherTank.navState, "idle") && shouldHandleCollision()) {
+                    explorationManager.recordCollision(tank);
                     Node temp = explorationManager.targetNodes.get(tank);
                     explorationManager.targetNodes.put(tank, explorationManager.findClosestNode(tank.position));
                     explorationManager.moveTowardTarget(tank);
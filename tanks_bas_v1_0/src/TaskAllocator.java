@@ -0,0 +1,88 @@
+import java.util.*;
+
+/**
+ * Assigns tanks to distinct targets with the Hungarian algorithm.
+ * The assignment maximizes the summed utility over all tanks, instead of every tank
+ * greedily taking its own best target and leaving the others to fight over the rest.
+ */
+class TaskAllocator {
+
+    /**
+     * Solves the assignment problem for a utility matrix.
+     * @param utility utility[tank][target], higher is better
+     * @return For every tank the index of its target, or -1 if there are fewer targets than tanks
+     */
+    static int[] assign(float[][] utility) {
+        int tanks = utility.length;
+        if (tanks == 0) return new int[0];
+        int targets = utility[0].length;
+
+        // The algorithm needs at least as many columns as rows, missing targets get zero utility
+        int n = tanks;
+        int m = Math.max(targets, tanks);
+        float max = 0;
+        for (float[] row : utility) {
+            for (float value : row) {
+                max = Math.max(max, value);
+            }
+        }
+
+        // Minimization over cost = max - utility, with 1-based arrays as in the classic formulation
+        double[] u = new double[n + 1];
+        double[] v = new double[m + 1];
+        int[] p = new int[m + 1];
+        int[] way = new int[m + 1];
+
+        for (int i = 1; i <= n; i++) {
+            p[0] = i;
+            int j0 = 0;
+            double[] minv = new double[m + 1];
+            boolean[] used = new boolean[m + 1];
+            Arrays.fill(minv, Double.MAX_VALUE);
+
+            do {
+                used[j0] = true;
+                int i0 = p[j0];
+                double delta = Double.MAX_VALUE;
+                int j1 = 0;
+                for (int j = 1; j <= m; j++) {
+                    if (used[j]) continue;
+                    double cost = max - (j <= targets ? utility[i0 - 1][j - 1] : 0);
+                    double current = cost - u[i0] - v[j];
+                    if (current < minv[j]) {
+                        minv[j] = current;
+                        way[j] = j0;
+                    }
+                    if (minv[j] < delta) {
+                        delta = minv[j];
+                        j1 = j;
+                    }
+                }
+                for (int j = 0; j <= m; j++) {
+                    if (used[j]) {
+                        u[p[j]] += delta;
+                        v[j] -= delta;
+                    } else {
+                        minv[j] -= delta;
+                    }
+                }
+                j0 = j1;
+            } while (p[j0] != 0);
+
+            do {
+                int j1 = way[j0];
+                p[j0] = p[j1];
+                j0 = j1;
+            } while (j0 != 0);
+        }
+
+        int[] assignment = new int[tanks];
+        Arrays.fill(assignment, -1);
+        for (int j = 1; j <= m; j++) {
+            if (p[j] != 0 && j <= targets) {
+                assignment[p[j] - 1] = j - 1;
+            }
+        }
+        return assignment;
+    }
+}
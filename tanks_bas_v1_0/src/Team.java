@@ -55,24 +55,56 @@ class Team {
     /**
      * Updates the team's exploration manager and all agent behaviors.
      * Coordinates team-wide exploration and tactical decisions.
+     * Agents only decide on the ticks the agent scheduler gives them.
      */
     void update() {
         explorationManager.updateTankPositions();
+        explorationManager.stepSearches();
+        explorationManager.allocateExplorationTargets();
         explorationManager.navigation();
+        explorationManager.updateCongestion();
+        explorationManager.refineGraph();
+        explorationManager.publishSnapshot();
 
         for (TankAgent agent : agents) {
-            agent.update();
+            if (explorationManager.agentScheduler.isDue(agent.tank)) {
+                agent.update();
+            }
         }
 
         if (enemyBaseDetected)
             explorationManager.enemyDetected = true;
     }
+    /**
+     * Stops the background threads of the team's exploration manager.
+     */
+    void shutdown() {
+        explorationManager.shutdown();
+    }
     /**
      * Toggles auto-exploration mode for all tanks in the team.
      */
     void toggleAutoExplore() {
         explorationManager.toggleAutoExplore();
     }
+    /**
+     * Toggles flow field navigation for coordinated moves of the whole team.
+     */
+    void toggleFlowFieldMode() {
+        explorationManager.toggleFlowFieldMode();
+    }
+    /**
+     * Toggles between background path planning and budgeted planning on the draw thread.
+     */
+    void toggleAsyncPlanning() {
+        explorationManager.toggleAsyncPlanning();
+    }
+    /**
+     * Toggles frontier based exploration targets for all tanks in the team.
+     */
+    void toggleFrontierMode() {
+        explorationManager.toggleFrontierMode();
+    }
     /**
      * Commands all tanks to return to their home base.
      */
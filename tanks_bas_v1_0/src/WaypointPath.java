@@ -0,0 +1,132 @@
+import processing.core.PVector;
+
+import java.util.*;
+import java.util.function.BiPredicate;
+
+/**
+ * Compact path a tank follows: waypoint coordinates in one flat array (x0, y0, x1, y1, ...)
+ * together with the graph node at each waypoint, so advancing to the next waypoint
+ * needs no lookup in the graph.
+ */
+class WaypointPath {
+    float[] coordinates;
+    Node[] nodes;
+    int cursor;
+
+    /**
+     * Constructor for an empty path.
+     */
+    WaypointPath() {
+        this(new Node[0]);
+    }
+
+    /**
+     * Constructor for a path through the given nodes.
+     * @param waypoints The nodes to visit in order
+     */
+    WaypointPath(Node[] waypoints) {
+        this.nodes = waypoints;
+        this.coordinates = new float[waypoints.length * 2];
+        for (int i = 0; i < waypoints.length; i++) {
+            coordinates[i * 2] = waypoints[i].position.x;
+            coordinates[i * 2 + 1] = waypoints[i].position.y;
+        }
+        this.cursor = 0;
+    }
+
+    /**
+     * Constructor for a path through every node of a graph path.
+     * @param pathing List of nodes from start to goal
+     */
+    WaypointPath(List<Node> pathing) {
+        this(pathing.toArray(new Node[0]));
+    }
+
+    /**
+     * Shortens a graph path by string pulling: every waypoint that can be skipped because the
+     * next one is visible from the previous kept waypoint is dropped, so the tank drives straight
+     * lines across the open instead of zigzagging from node to node.
+     * @param from Position the path is followed from, usually the tank position
+     * @param pathing List of nodes from start to goal
+     * @param lineOfSight Obstacle test between two positions
+     * @return Path through the kept nodes
+     */
+    static WaypointPath smoothed(PVector from, List<Node> pathing, BiPredicate<PVector, PVector> lineOfSight) {
+        ArrayList<Node> kept = new ArrayList<>();
+        PVector anchor = from;
+
+        for (int i = 0; i < pathing.size() - 1; i++) {
+            if (!lineOfSight.test(anchor, pathing.get(i + 1).position)) {
+                kept.add(pathing.get(i));
+                anchor = pathing.get(i).position;
+            }
+        }
+        if (!pathing.isEmpty()) {
+            kept.add(pathing.get(pathing.size() - 1));
+        }
+        return new WaypointPath(kept.toArray(new Node[0]));
+    }
+
+    /**
+     * Checks if all waypoints have been reached.
+     * @return true if no waypoints are left
+     */
+    boolean isEmpty() {
+        return cursor >= nodes.length;
+    }
+
+    /**
+     * Gets the number of waypoints left, including the current one.
+     * @return Remaining waypoint count
+     */
+    int remaining() {
+        return nodes.length - cursor;
+    }
+
+    /**
+     * Gets the node of the current waypoint.
+     * @return The current waypoint node, or null if the path is finished
+     */
+    Node current() {
+        return isEmpty() ? null : nodes[cursor];
+    }
+
+    /**
+     * Gets the x-coordinate of the current waypoint.
+     * @return X-coordinate, only valid while the path is not finished
+     */
+    float currentX() {
+        return coordinates[cursor * 2];
+    }
+
+    /**
+     * Gets the y-coordinate of the current waypoint.
+     * @return Y-coordinate, only valid while the path is not finished
+     */
+    float currentY() {
+        return coordinates[cursor * 2 + 1];
+    }
+
+    /**
+     * Checks if a position has reached the current waypoint.
+     * @param x X-coordinate of the position
+     * @param y Y-coordinate of the position
+     * @param radius Distance at which the waypoint counts as reached
+     * @return true if the path is not finished and the position is within the radius of the current waypoint
+     */
+    boolean isCurrentWithin(float x, float y, float radius) {
+        if (isEmpty()) return false;
+        float dx = coordinates[cursor * 2] - x;
+        float dy = coordinates[cursor * 2 + 1] - y;
+        return dx * dx + dy * dy < radius * radius;
+    }
+
+    /**
+     * Moves on to the next waypoint.
+     */
+    void advance() {
+        if (!isEmpty()) {
+            cursor++;
+        }
+    }
+}
@@ -11,6 +11,8 @@ public class tanks_bas_v1_0 extends PApplet{
 // Klassen Tank är minimal och skickas mer med som koncept(anrop/states/vektorer).
 
   Collisions collisions;
+  ProjectilePool projectiles;
+  ParticleSystem particles;
   boolean left, right, up, down;
   boolean mouse_pressed;
 
@@ -108,6 +110,12 @@ public class tanks_bas_v1_0 extends PApplet{
     allTanks[4] = tank4;
     allTanks[5] = tank5;
 
+    particles = new ParticleSystem(this, 8192);
+    projectiles = new ProjectilePool(this, particles, 256);
+    for (Tank tank : allTanks) {
+      tank.setProjectilePool(projectiles);
+    }
+
     collisions = new Collisions(this);
     collisions.setTrees(allTrees);
 
@@ -147,6 +155,8 @@ public class tanks_bas_v1_0 extends PApplet{
     displayTrees();
     team0.display();
     displayTanks();
+    projectiles.display();
+    particles.display();
     displayGUI();
   }
 
@@ -200,9 +210,18 @@ public class tanks_bas_v1_0 extends PApplet{
     }
     if(count == 3) gameOver = true;
 
-    // Update tank agents with sensor information
+    projectiles.update(1);
+    particles.update();
+
+    // Update tank agents with sensor information, staggered over the ticks by the agent scheduler
+    team0.explorationManager.agentScheduler.beginTick(allTanks);
     for (TankAgent agent : team0.agents) {
-      agent.updateSensor(allTanks, allTrees);
+      if (team0.explorationManager.agentScheduler.isDue(agent.tank)) {
+        agent.updateSensor(allTanks, allTrees);
+      } else {
+        // Keep drawing what the sensor saw last
+        agent.tank.losSensor.visualize(agent.lastSensorDetections);
+      }
     }
   }
 
@@ -215,23 +234,7 @@ public class tanks_bas_v1_0 extends PApplet{
       collisions.checkAllCollisions(allTanks, allTrees);
     }
 
-    for (Tank tank : allTanks) {
-      if (tank != null) {
-        // Check projectile collision with trees
-        for (Tree tree : allTrees) {
-          if (tree != null) {
-            tank.projectile.checkTreeCollision(tree);
-          }
-        }
-
-        // Check projectile collision with other tanks
-        for (Tank otherTank : allTanks) {
-          if (otherTank != null && otherTank != tank) {
-            tank.projectile.checkTankCollision(otherTank);
-          }
-        }
-      }
-    }
+    projectiles.checkCollisions(allTanks, allTrees, 1);
   }
 
   /**
@@ -261,7 +264,7 @@ public class tanks_bas_v1_0 extends PApplet{
     if (pause) {
       textSize(36);
       fill(30);
-      text("...Paused! (\'p\'-continues)\n(arrow keys-change direction)\n(\'a\'-auto explores environment)\n(\'r'\'-returns home with A*)\n(\'d\'-returns home with dijkstra)", (float) (width/2.45), (float) (height/3));
+      text("...Paused! (\'p\'-continues)\n(arrow keys-change direction)\n(\'a\'-auto explores environment)\n(\'r'\'-returns home with A*)\n(\'d\'-returns home with dijkstra)\n(\'f\'-toggles flow field mode)\n(\'e\'-toggles frontier exploration)\n(\'b\'-toggles budgeted path planning)", (float) (width/2.45), (float) (height/3));
     }
 
     if (gameOver) {
@@ -331,6 +334,15 @@ public class tanks_bas_v1_0 extends PApplet{
       tankAgent0.setPathfindingAlgorithm("Dijkstra");
       team0.returnAllHome();
     }
+    if (key == 'f' || key == 'F') {
+      team0.toggleFlowFieldMode();
+    }
+    if (key == 'e' || key == 'E') {
+      team0.toggleFrontierMode();
+    }
+    if (key == 'b' || key == 'B') {
+      team0.toggleAsyncPlanning();
+    }
     if(key == '2'){
       //
     }
@@ -344,6 +356,14 @@ public class tanks_bas_v1_0 extends PApplet{
     println("*** mousePressed() - Musknappen har tryckts ned.");
     mouse_pressed = true;
   }
+  /**
+   * Stops the background planning threads of both teams when the sketch exits.
+   */
+  public void dispose() {
+    team0.shutdown();
+    team1.shutdown();
+    super.dispose();
+  }
   /**
    * Main method to start the application.
    *